@@ -0,0 +1,56 @@
+package chess.benchmarks;
+
+import chess.ChessBoard;
+import chess.Perft;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-board copies and comparisons
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    private ChessBoard source;
+    private ChessBoard copy;
+    private ChessBoard target;
+
+    @Setup
+    public void setup() {
+        source = Perft.Position.KIWIPETE.createGame().getBoard();
+        copy = new ChessBoard();
+        copy.setBoard(source);
+        target = new ChessBoard();
+    }
+
+    @Benchmark
+    public ChessBoard setBoard() {
+        target.setBoard(source);
+        return target;
+    }
+
+    @Benchmark
+    public boolean equalBoards() {
+        return source.equals(copy);
+    }
+
+    @Benchmark
+    public int boardHashCode() {
+        return source.hashCode();
+    }
+}
@@ -0,0 +1,100 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.MoveList;
+import chess.Perft;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Game-level rule queries: legal move generation, making moves and the game status checks.
+ * The middlegame benchmarks use Kiwipete; the mated benchmarks use the position after fool's mate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    private ChessGame middlegame;
+    private ChessGame mated;
+    private ChessPosition queen;
+    private ChessMove quietMove;
+    private final MoveList moveList = new MoveList();
+
+    @Setup
+    public void setup() throws InvalidMoveException {
+        middlegame = Perft.Position.KIWIPETE.createGame();
+        queen = new ChessPosition(3, 6);
+        quietMove = new ChessMove(queen, new ChessPosition(4, 7), null);
+
+        mated = new ChessGame();
+        mated.makeMove(move(2, 6, 3, 6));
+        mated.makeMove(move(7, 5, 5, 5));
+        mated.makeMove(move(2, 7, 4, 7));
+        mated.makeMove(move(8, 4, 4, 8));
+    }
+
+    @Benchmark
+    public Collection<ChessMove> validMoves() {
+        return middlegame.validMoves(queen);
+    }
+
+    @Benchmark
+    public Collection<ChessMove> allValidMoves() {
+        return middlegame.allValidMoves(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public MoveList generatePackedMoves() {
+        middlegame.generateMoves(moveList);
+        return moveList;
+    }
+
+    @Benchmark
+    public ChessGame makeAndUnmakeMove() throws InvalidMoveException {
+        middlegame.makeMove(quietMove);
+        middlegame.unmakeMove();
+        return middlegame;
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return middlegame.isInCheck(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return middlegame.isInCheckmate(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public boolean isInCheckmateWhenMated() {
+        return mated.isInCheckmate(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return middlegame.isInStalemate(ChessGame.TeamColor.WHITE);
+    }
+
+    private static ChessMove move(int fromRow, int fromColumn, int toRow, int toColumn) {
+        return new ChessMove(new ChessPosition(fromRow, fromColumn), new ChessPosition(toRow, toColumn), null);
+    }
+}
@@ -0,0 +1,67 @@
+package chess.benchmarks;
+
+import chess.Perft;
+import chess.engine.ParallelSearch;
+import chess.engine.SearchLimits;
+import chess.engine.TranspositionTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time for the Lazy SMP search to reach a fixed depth in every perft reference position,
+ * starting from an empty transposition table each time. Run {@link SearchSpeedup} to turn
+ * the results for each thread count into speedups over one thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParallelSearchBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param("8")
+    public int depth;
+
+    private ParallelSearch search;
+
+    @Setup(Level.Trial)
+    public void createSearch() {
+        search = new ParallelSearch(threads, new TranspositionTable(256));
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        search.getTable().clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void closeSearch() {
+        search.close();
+    }
+
+    @Benchmark
+    public long timeToDepth() {
+        long nodes = 0;
+        for (Perft.Position position : Perft.Position.values()) {
+            nodes += search.search(position.createGame(), SearchLimits.depth(depth)).nodes();
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,50 @@
+package chess.benchmarks;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs {@link ParallelSearchBenchmark} for a range of thread counts and prints the time
+ * to depth and the speedup over a single thread for each.
+ * <p>
+ * Thread counts may be given as arguments; by default powers of two up to the number of
+ * available processors are measured.
+ */
+public class SearchSpeedup {
+    public static void main(String[] args) throws RunnerException {
+        List<String> threadCounts = new ArrayList<>(List.of(args));
+        if (threadCounts.isEmpty()) {
+            for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+                threadCounts.add(Integer.toString(threads));
+            }
+        }
+        if (!threadCounts.contains("1")) {
+            threadCounts.add(0, "1");
+        }
+
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(ParallelSearchBenchmark.class.getName())
+                .param("threads", threadCounts.toArray(new String[0]))
+                .build()).run();
+
+        Map<Integer, Double> millis = new TreeMap<>();
+        for (RunResult result : results) {
+            millis.put(Integer.parseInt(result.getParams().getParam("threads")), result.getPrimaryResult().getScore());
+        }
+        double single = millis.get(1);
+        System.out.printf("%n%8s %12s %8s %11s%n", "threads", "ms to depth", "speedup", "efficiency");
+        for (Map.Entry<Integer, Double> entry : millis.entrySet()) {
+            double speedup = single / entry.getValue();
+            System.out.printf("%8d %12.1f %7.2fx %10.0f%%%n", entry.getKey(), entry.getValue(), speedup,
+                    100 * speedup / entry.getKey());
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package chess;
+
+/**
+ * Precomputed attack lookups for every piece type on a bitboard square.
+ * <p>
+ * Sliding pieces use magic bitboards: the blockers on a piece's relevant rays are
+ * multiplied by a per-square magic number and shifted down to index a table of
+ * precomputed attack sets, so a rook, bishop or queen lookup is a mask, a multiply,
+ * a shift and an array read. The magic numbers below were found offline with a
+ * seeded sparse-random search; the attack tables behind them are filled in once at
+ * class initialisation.
+ */
+public final class Attacks {
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][] KNIGHT_OFFSETS = {
+            {2, 1}, {2, -1}, {-2, 1}, {-2, -1},
+            {1, 2}, {1, -2}, {-1, 2}, {-1, -2},
+    };
+    private static final int[][] KING_OFFSETS = {
+            {1, 0}, {-1, 0}, {0, 1}, {0, -1},
+            {1, 1}, {-1, 1}, {1, -1}, {-1, -1},
+    };
+
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+
+    private static final long[] ROOK_MAGICS = {
+            0x1080004008801020L, 0x0840092002C03000L, 0x1900200010400900L, 0x0880100008000480L,
+            0x4200100420080200L, 0x8100020100080400L, 0x0200040110886200L, 0x0200008040220411L,
+            0x0404800084400220L, 0x0000401000402000L, 0x0086001081220440L, 0x0408800800100280L,
+            0x000A001201040820L, 0x8848800200840080L, 0x4001000100040200L, 0x0442000102105084L,
+            0x9080010020804100L, 0x0040404000201009L, 0x0000808010002009L, 0x2200090021D00100L,
+            0x0008008008040080L, 0x0004004002010040L, 0x0011040008015042L, 0x00000A0001768104L,
+            0x0000800080204009L, 0x2010004140002001L, 0x9800200280100080L, 0x1000100080080080L,
+            0x0050500500080100L, 0x0000020080040080L, 0x0C10010400420810L, 0x1040008200005104L,
+            0x01808240088004A0L, 0x0882804004802000L, 0x0880402001001100L, 0x2000210409001000L,
+            0x2000480131001500L, 0x0000800400800200L, 0x000002380C001003L, 0x4600084882000431L,
+            0x0080002000504000L, 0x0300500020004002L, 0x0040408200220011L, 0x0010040008004040L,
+            0x0000080004008080L, 0x0010040002008080L, 0x2012004881020004L, 0x8300842444820011L,
+            0x0088403882010200L, 0x0820400080210100L, 0x0110910040A00300L, 0x0801100280080480L,
+            0x0242009008200600L, 0x1002000489500200L, 0x0040800200010080L, 0x0091800041000080L,
+            0x0000209300488001L, 0x04C1002414824001L, 0x020020000B001041L, 0x7000100004200901L,
+            0x8002002004100802L, 0x30010002084C0007L, 0x0888221800813004L, 0x4000002840840112L
+    };
+    private static final long[] BISHOP_MAGICS = {
+            0x20C0090901061081L, 0x0024040094030104L, 0x8210810200290200L, 0x0011040484620000L,
+            0x0081104002221000L, 0x0009012011001350L, 0x0081010802400380L, 0x0000420210010408L,
+            0x0008105002280050L, 0x0001028484040044L, 0x2A00880810408804L, 0x7020022282000100L,
+            0x0084040420100A50L, 0x000401010840E000L, 0x2020020210420888L, 0x0008084202012010L,
+            0x2010400810018800L, 0x0445122008020840L, 0x0804100808002008L, 0x0008002104110100L,
+            0x0061005820080800L, 0x2001000200820100L, 0x480C210084010800L, 0x3004442500480420L,
+            0x1010102240048100L, 0x00182009084220A3L, 0x8803090A10004205L, 0x0208080040202020L,
+            0x000C044084010040L, 0x00A1010002004106L, 0x6008210020640202L, 0x1600902112860801L,
+            0x00042008C1220200L, 0x010C042002440140L, 0x5022080200040820L, 0x0402004042940100L,
+            0x0860108400008020L, 0x000C080022021000L, 0x0264080652822100L, 0x4005031221010401L,
+            0x0004502410008400L, 0x000500B010A20400L, 0x0415094050080800L, 0x080000201800A104L,
+            0x4022A80304000110L, 0x4012140802028020L, 0x40200104010100A0L, 0x12810806008B0C41L,
+            0x0020441008080000L, 0x2002120084045420L, 0x0704020062080002L, 0x0000001084040001L,
+            0x0322200891240200L, 0xF040200210024800L, 0x0140824832008042L, 0x000210020A004602L,
+            0x0083042805141020L, 0x002C12009A011000L, 0x0041A00044140400L, 0x00004004020A0202L,
+            0x0000140010020210L, 0x2864160811012200L, 0x2060080841082A17L, 0xA010041108003100L
+    };
+
+    private static final Magic[] ROOK = new Magic[64];
+    private static final Magic[] BISHOP = new Magic[64];
+
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT[square] = leaperAttacks(square, KNIGHT_OFFSETS);
+            KING[square] = leaperAttacks(square, KING_OFFSETS);
+            PAWN[ChessGame.TeamColor.WHITE.ordinal()][square] = leaperAttacks(square, new int[][]{{1, 1}, {1, -1}});
+            PAWN[ChessGame.TeamColor.BLACK.ordinal()][square] = leaperAttacks(square, new int[][]{{-1, 1}, {-1, -1}});
+        }
+        for (int square = 0; square < 64; square++) {
+            ROOK[square] = Magic.build(square, ROOK_MAGICS[square], ROOK_DIRECTIONS);
+            BISHOP[square] = Magic.build(square, BISHOP_MAGICS[square], BISHOP_DIRECTIONS);
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                long bits = (1L << a) | (1L << b);
+                if (a == b) {
+                    continue;
+                }
+                if ((rookAttacks(a, 0L) & (1L << b)) != 0) {
+                    BETWEEN[a][b] = rookAttacks(a, 1L << b) & rookAttacks(b, 1L << a);
+                    LINE[a][b] = (rookAttacks(a, 0L) & rookAttacks(b, 0L)) | bits;
+                } else if ((bishopAttacks(a, 0L) & (1L << b)) != 0) {
+                    BETWEEN[a][b] = bishopAttacks(a, 1L << b) & bishopAttacks(b, 1L << a);
+                    LINE[a][b] = (bishopAttacks(a, 0L) & bishopAttacks(b, 0L)) | bits;
+                }
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    /**
+     * @return squares a rook on {@code square} attacks given the occupied squares
+     */
+    public static long rookAttacks(int square, long occupied) {
+        return ROOK[square].attacks(occupied);
+    }
+
+    /**
+     * @return squares a bishop on {@code square} attacks given the occupied squares
+     */
+    public static long bishopAttacks(int square, long occupied) {
+        return BISHOP[square].attacks(occupied);
+    }
+
+    /**
+     * @return squares a queen on {@code square} attacks given the occupied squares
+     */
+    public static long queenAttacks(int square, long occupied) {
+        return ROOK[square].attacks(occupied) | BISHOP[square].attacks(occupied);
+    }
+
+    /**
+     * @return squares a knight on {@code square} attacks
+     */
+    public static long knightAttacks(int square) {
+        return KNIGHT[square];
+    }
+
+    /**
+     * @return squares a king on {@code square} attacks
+     */
+    public static long kingAttacks(int square) {
+        return KING[square];
+    }
+
+    /**
+     * @return squares a pawn of the given team on {@code square} attacks diagonally
+     */
+    public static long pawnAttacks(ChessGame.TeamColor color, int square) {
+        return PAWN[color.ordinal()][square];
+    }
+
+    /**
+     * @return squares strictly between two squares on a shared rank, file or diagonal,
+     * or an empty bitboard if they are not aligned
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * @return every square on the rank, file or diagonal through both squares,
+     * or an empty bitboard if they are not aligned
+     */
+    public static long line(int from, int to) {
+        return LINE[from][to];
+    }
+
+    /**
+     * @return squares a piece of the given type and team on {@code square} attacks
+     */
+    public static long attacks(ChessPiece.PieceType type, ChessGame.TeamColor color, int square, long occupied) {
+        return switch (type) {
+            case KING -> KING[square];
+            case QUEEN -> queenAttacks(square, occupied);
+            case BISHOP -> bishopAttacks(square, occupied);
+            case KNIGHT -> KNIGHT[square];
+            case ROOK -> rookAttacks(square, occupied);
+            case PAWN -> PAWN[color.ordinal()][square];
+        };
+    }
+
+    private static long leaperAttacks(int square, int[][] offsets) {
+        long attacks = 0L;
+        int row = square >>> 3;
+        int column = square & 7;
+        for (int[] offset : offsets) {
+            int toRow = row + offset[0];
+            int toColumn = column + offset[1];
+            if (toRow >= 0 && toRow < 8 && toColumn >= 0 && toColumn < 8) {
+                attacks |= 1L << (toRow * 8 + toColumn);
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Walks each ray from {@code square} until it leaves the board or hits a blocker,
+     * including the blocker square. Only used to fill the magic tables.
+     */
+    private static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int row = (square >>> 3) + direction[0];
+            int column = (square & 7) + direction[1];
+            while (row >= 0 && row < 8 && column >= 0 && column < 8) {
+                long bit = 1L << (row * 8 + column);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Squares whose occupancy can change a slider's attack set: its rays minus the
+     * final edge square of each ray.
+     */
+    private static long relevantMask(int square, int[][] directions) {
+        long mask = 0L;
+        for (int[] direction : directions) {
+            int row = (square >>> 3) + direction[0];
+            int column = (square & 7) + direction[1];
+            while (row + direction[0] >= 0 && row + direction[0] < 8
+                    && column + direction[1] >= 0 && column + direction[1] < 8) {
+                mask |= 1L << (row * 8 + column);
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private record Magic(long mask, long magic, int shift, long[] table) {
+        long attacks(long occupied) {
+            return table[(int) (((occupied & mask) * magic) >>> shift)];
+        }
+
+        /**
+         * Fills the attack table for one square by enumerating every subset of its
+         * relevant blockers.
+         */
+        static Magic build(int square, long magic, int[][] directions) {
+            long mask = relevantMask(square, directions);
+            int shift = 64 - Long.bitCount(mask);
+            long[] table = new long[1 << Long.bitCount(mask)];
+            long subset = 0L;
+            do {
+                int index = (int) ((subset * magic) >>> shift);
+                long attacks = slidingAttacks(square, subset, directions);
+                if (table[index] != 0 && table[index] != attacks) {
+                    throw new IllegalStateException("Magic collision on square " + square);
+                }
+                table[index] = attacks;
+                subset = (subset - mask) & mask;
+            } while (subset != 0);
+            return new Magic(mask, magic, shift, table);
+        }
+    }
+}
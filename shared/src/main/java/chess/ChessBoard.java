@@ -1,40 +1,115 @@
 package chess;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Map;
-import java.util.HashMap;
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * The board is stored as twelve 64-bit piece bitboards (one per colored piece kind)
+ * plus per-team and total occupancy masks. Bit {@code n} of a bitboard is the square
+ * returned by {@link ChessPosition#getSquare()}.
+ * <p>
+ * Alongside the bitboards the board keeps a square-to-piece mailbox, a list of occupied
+ * squares per team and each king's square, all updated incrementally as pieces are
+ * placed, moved and removed, so piece lookups and king lookups never scan the board.
+ * The game phase and, when a {@link PieceSquareTable} is attached, the midgame and
+ * endgame piece-square sums are maintained the same way for evaluation.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessBoard {
 
-    private Map<ChessPosition, ChessPiece> board;
+    static final int PIECE_KINDS = 6;
+    static final int KING = ChessPiece.PieceType.KING.ordinal();
+    static final int QUEEN = ChessPiece.PieceType.QUEEN.ordinal();
+    static final int BISHOP = ChessPiece.PieceType.BISHOP.ordinal();
+    static final int KNIGHT = ChessPiece.PieceType.KNIGHT.ordinal();
+    static final int ROOK = ChessPiece.PieceType.ROOK.ordinal();
+    static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
+    private static final ChessPiece[] PIECES = new ChessPiece[2 * PIECE_KINDS];
 
-    public ChessBoard() {
-        this.board = new HashMap<>();
+    /**
+     * Contribution of each piece kind to the game phase; 24 with all pieces on the board
+     */
+    private static final int[] PHASE_WEIGHTS = {0, 4, 1, 1, 2, 0, 0, 4, 1, 1, 2, 0};
+
+    /**
+     * Game phase value of the starting position
+     */
+    public static final int MAX_PHASE = 24;
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                PIECES[pieceIndex(color, type)] = ChessPiece.of(color, type);
+            }
+        }
     }
 
+    private final long[] pieceBoards;
+    private final long[] teamBoards;
+    private long occupied;
+    private long zobristKey;
+    private long pawnKey;
 
     /**
-     * Adds a chess piece to the chessboard
-     *
-     * @param position where to add the piece to
-     * @param piece    the piece to add
+     * Piece index on each square, or -1 when empty
      */
+    private final byte[] mailbox;
+
+    /**
+     * Occupied squares per team in no particular order, with each square's slot in its
+     * team's list so a piece can be removed by swapping in the last entry
+     */
+    private final int[][] pieceLists;
+    private final int[] pieceCounts;
+    private final int[] listSlots;
+    private final int[] kingSquares;
+    private int phase;
+    private PieceSquareTable pieceSquareTable;
+    private int midgameScore;
+    private int endgameScore;
+
+    public ChessBoard() {
+        this.pieceBoards = new long[2 * PIECE_KINDS];
+        this.teamBoards = new long[2];
+        this.mailbox = new byte[64];
+        this.pieceLists = new int[2][64];
+        this.pieceCounts = new int[2];
+        this.listSlots = new int[64];
+        this.kingSquares = new int[2];
+        Arrays.fill(mailbox, (byte) -1);
+        Arrays.fill(kingSquares, -1);
+    }
+
 
     /**
      * Returns all positions on the board where there are pieces.
      * @return Collection of all positions containing pieces.
      */
     public Collection<ChessPosition> getAllPositions() {
-        return board.keySet();
+        Collection<ChessPosition> positions = new ArrayList<>(Long.bitCount(occupied));
+        for (long bits = occupied; bits != 0; bits &= bits - 1) {
+            positions.add(ChessPosition.fromSquare(Long.numberOfTrailingZeros(bits)));
+        }
+        return positions;
     }
 
+    /**
+     * Adds a chess piece to the chessboard
+     *
+     * @param position where to add the piece to
+     * @param piece    the piece to add, or null to clear the square
+     * @throws IllegalArgumentException if the position is off the board
+     */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        board.put(position, piece);
+        int square = position.getSquare();
+        clearSquare(square);
+        if (piece != null) {
+            putPiece(square, pieceIndex(piece.getTeamColor(), piece.getPieceType()));
+        }
     }
 
     /**
@@ -43,66 +118,216 @@ public class ChessBoard {
      * @param position The position to get the piece from
      * @return Either the piece at the position, or null if no piece is at that
      * position
+     * @throws IllegalArgumentException if the position is off the board
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return board.getOrDefault(position, null);
+        int index = pieceAt(position.getSquare());
+        return index < 0 ? null : PIECES[index];
     }
 
     /**
-     * Sets the board to the default starting board
-     * (How the game of chess normally starts)
+     * Copies every piece of another board onto this board
+     *
+     * @param newBoard the board to copy
      */
     public void setBoard(ChessBoard newBoard) {
-        this.board.clear();
-        for (Map.Entry<ChessPosition, ChessPiece> entry : newBoard.board.entrySet()) {
-            ChessPosition copiedPosition = new ChessPosition(entry.getKey().getRow(), entry.getKey().getColumn());
-            ChessPiece copiedPiece = new ChessPiece(entry.getValue().getTeamColor(), entry.getValue().getPieceType());
-            this.board.put(copiedPosition, copiedPiece);
+        System.arraycopy(newBoard.pieceBoards, 0, this.pieceBoards, 0, pieceBoards.length);
+        System.arraycopy(newBoard.teamBoards, 0, this.teamBoards, 0, teamBoards.length);
+        this.occupied = newBoard.occupied;
+        this.zobristKey = newBoard.zobristKey;
+        this.pawnKey = newBoard.pawnKey;
+        System.arraycopy(newBoard.mailbox, 0, this.mailbox, 0, mailbox.length);
+        for (int team = 0; team < 2; team++) {
+            System.arraycopy(newBoard.pieceLists[team], 0, this.pieceLists[team], 0, newBoard.pieceCounts[team]);
         }
+        System.arraycopy(newBoard.pieceCounts, 0, this.pieceCounts, 0, pieceCounts.length);
+        System.arraycopy(newBoard.listSlots, 0, this.listSlots, 0, listSlots.length);
+        System.arraycopy(newBoard.kingSquares, 0, this.kingSquares, 0, kingSquares.length);
+        this.phase = newBoard.phase;
+        recomputeScores();
     }
 
     @Override
     public String toString() {
-        return "ChessBoard{" +
-                "board=" + board +
-                '}';
+        StringBuilder text = new StringBuilder();
+        for (int row = 7; row >= 0; row--) {
+            text.append('|');
+            for (int column = 0; column < 8; column++) {
+                int index = pieceAt(row * 8 + column);
+                text.append(index < 0 ? ' ' : pieceChar(index)).append('|');
+            }
+            text.append('\n');
+        }
+        return text.toString();
     }
 
+    /**
+     * Sets the board to the default starting board
+     * (How the game of chess normally starts)
+     */
     public void resetBoard() {
-        board.clear();
+        clear();
 
         // Add pawns
         for (int i = 1; i <= 8; i++) {
-            addPiece(new ChessPosition(2, i), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
-            addPiece(new ChessPosition(7, i), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(2, i), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(7, i), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
         }
 
+        // Add white major pieces
+        addPiece(ChessPosition.of(1, 1), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(1, 2), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1, 3), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1, 4), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(1, 5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(1, 6), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(1, 7), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(1, 8), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+
         // Add black major pieces
-        addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(1, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(1, 6), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(1, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8, 1), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(8, 2), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8, 3), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8, 4), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(8, 5), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(8, 6), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(8, 7), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(8, 8), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+    }
 
-        // Add white major pieces
-        addPiece(new ChessPosition(8, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(8, 2), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(8, 6), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(8, 7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+    /**
+     * Removes every piece from the board
+     */
+    public void clear() {
+        Arrays.fill(pieceBoards, 0L);
+        Arrays.fill(teamBoards, 0L);
+        occupied = 0L;
+        zobristKey = 0L;
+        pawnKey = 0L;
+        Arrays.fill(mailbox, (byte) -1);
+        Arrays.fill(pieceCounts, 0);
+        Arrays.fill(kingSquares, -1);
+        phase = 0;
+        midgameScore = 0;
+        endgameScore = 0;
+    }
+
+    /**
+     * Attaches the table whose midgame and endgame sums the board should keep up to date
+     * as pieces move, replacing any earlier one
+     *
+     * @param table the table, or null to stop tracking piece-square sums
+     */
+    public void setPieceSquareTable(PieceSquareTable table) {
+        this.pieceSquareTable = table;
+        recomputeScores();
+    }
+
+    public PieceSquareTable getPieceSquareTable() {
+        return pieceSquareTable;
+    }
+
+    /**
+     * @return sum of the attached table's midgame values, White minus Black, or 0 if no
+     * table is attached
+     */
+    public int getMidgameScore() {
+        return midgameScore;
+    }
+
+    /**
+     * @return sum of the attached table's endgame values, White minus Black, or 0 if no
+     * table is attached
+     */
+    public int getEndgameScore() {
+        return endgameScore;
+    }
+
+    /**
+     * @return game phase from {@link #MAX_PHASE} with all minor and major pieces on the
+     * board down to 0 with only kings and pawns; may exceed the maximum after promotions
+     */
+    public int getPhase() {
+        return phase;
     }
 
+    /**
+     * @return bitboard of the squares holding the given team's pieces of the given type
+     */
+    public long getPieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceBoards[pieceIndex(color, type)];
+    }
 
+    /**
+     * @return bitboard of the squares holding any of the given team's pieces
+     */
+    public long getTeamOccupancy(ChessGame.TeamColor color) {
+        return teamBoards[color.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long getOccupancy() {
+        return occupied;
+    }
+
+    /**
+     * @return Zobrist key of the piece placement, kept up to date as pieces are added,
+     * moved and removed. Side to move, castling and en passant are added by {@link ChessGame}.
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * @return Zobrist key of the pawns alone, using the same piece keys as
+     * {@link #getZobristKey()}; positions with the same pawn structure share it
+     */
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    /**
+     * @return square index of the team's king, or -1 if it has none. With more than one
+     * king on the board this is the lowest of their squares.
+     */
+    public int getKingSquare(ChessGame.TeamColor color) {
+        return kingSquares[color.ordinal()];
+    }
+
+    /**
+     * @return position of the team's king, or null if it has none
+     */
+    public ChessPosition getKingPosition(ChessGame.TeamColor color) {
+        int square = kingSquares[color.ordinal()];
+        return square < 0 ? null : ChessPosition.fromSquare(square);
+    }
+
+    /**
+     * @return number of pieces the team has on the board
+     */
+    public int getPieceCount(ChessGame.TeamColor color) {
+        return pieceCounts[color.ordinal()];
+    }
+
+    /**
+     * Reads the team's piece list without allocating; entries are in no particular order
+     * and are reordered as pieces are removed
+     *
+     * @param index position in the list, from 0 to {@link #getPieceCount} - 1
+     * @return square index of that piece
+     */
+    public int getPieceSquare(ChessGame.TeamColor color, int index) {
+        if (index < 0 || index >= pieceCounts[color.ordinal()]) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return pieceLists[color.ordinal()][index];
+    }
 
     public boolean isValidPosition(ChessPosition position) {
-        return position.getRow() >= 0 && position.getRow() < 8 &&
-                position.getColumn() >= 0 && position.getColumn() < 8;
+        return position.getRow() >= 1 && position.getRow() <= 8 &&
+                position.getColumn() >= 1 && position.getColumn() <= 8;
     }
     public boolean isMoveLegal(ChessPosition start, ChessPosition end) {
         ChessPiece startPiece = getPiece(start);
@@ -121,25 +346,162 @@ public class ChessBoard {
         if (obj == null || getClass() != obj.getClass()) return false;
 
         ChessBoard otherBoard = (ChessBoard) obj;
+        return Arrays.equals(this.pieceBoards, otherBoard.pieceBoards);
+    }
 
-        if (this.board.size() != otherBoard.board.size()) {
-            return false;
+    @Override
+    public int hashCode() {
+        return Long.hashCode(zobristKey);
+    }
+
+    /**
+     * Index of a colored piece kind into the piece bitboards
+     */
+    static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * PIECE_KINDS + type.ordinal();
+    }
+
+    /**
+     * @return the piece index on a square, or -1 if the square is empty
+     */
+    int pieceAt(int square) {
+        return mailbox[square];
+    }
+
+    /**
+     * Places a piece on an empty square
+     */
+    void putPiece(int square, int index) {
+        long bit = 1L << square;
+        pieceBoards[index] |= bit;
+        teamBoards[index / PIECE_KINDS] |= bit;
+        occupied |= bit;
+        zobristKey ^= Zobrist.piece(index, square);
+        if (index % PIECE_KINDS == PAWN) {
+            pawnKey ^= Zobrist.piece(index, square);
         }
+        mailbox[square] = (byte) index;
+        phase += PHASE_WEIGHTS[index];
+        if (pieceSquareTable != null) {
+            midgameScore += pieceSquareTable.midgame(index, square);
+            endgameScore += pieceSquareTable.endgame(index, square);
+        }
+        int team = index / PIECE_KINDS;
+        listSlots[square] = pieceCounts[team];
+        pieceLists[team][pieceCounts[team]++] = square;
+        if (index % PIECE_KINDS == KING) {
+            kingSquares[team] = Long.numberOfTrailingZeros(pieceBoards[index]);
+        }
+    }
 
-        for (Map.Entry<ChessPosition, ChessPiece> entry : this.board.entrySet()) {
-            ChessPiece thisPiece = entry.getValue();
-            ChessPiece otherPiece = otherBoard.getPiece(entry.getKey());
+    /**
+     * Removes a known piece from its square
+     */
+    void removePiece(int square, int index) {
+        long mask = ~(1L << square);
+        pieceBoards[index] &= mask;
+        teamBoards[index / PIECE_KINDS] &= mask;
+        occupied &= mask;
+        zobristKey ^= Zobrist.piece(index, square);
+        if (index % PIECE_KINDS == PAWN) {
+            pawnKey ^= Zobrist.piece(index, square);
+        }
+        mailbox[square] = -1;
+        phase -= PHASE_WEIGHTS[index];
+        if (pieceSquareTable != null) {
+            midgameScore -= pieceSquareTable.midgame(index, square);
+            endgameScore -= pieceSquareTable.endgame(index, square);
+        }
+        int team = index / PIECE_KINDS;
+        int last = pieceLists[team][--pieceCounts[team]];
+        pieceLists[team][listSlots[square]] = last;
+        listSlots[last] = listSlots[square];
+        if (index % PIECE_KINDS == KING) {
+            kingSquares[team] = pieceBoards[index] == 0 ? -1 : Long.numberOfTrailingZeros(pieceBoards[index]);
+        }
+    }
 
-            if (!thisPiece.equals(otherPiece)) {
-                return false;
-            }
+    /**
+     * Moves a known piece to an empty square
+     */
+    void movePiece(int from, int to, int index) {
+        long bits = (1L << from) | (1L << to);
+        pieceBoards[index] ^= bits;
+        teamBoards[index / PIECE_KINDS] ^= bits;
+        occupied ^= bits;
+        zobristKey ^= Zobrist.piece(index, from) ^ Zobrist.piece(index, to);
+        if (index % PIECE_KINDS == PAWN) {
+            pawnKey ^= Zobrist.piece(index, from) ^ Zobrist.piece(index, to);
+        }
+        mailbox[from] = -1;
+        mailbox[to] = (byte) index;
+        if (pieceSquareTable != null) {
+            midgameScore += pieceSquareTable.midgame(index, to) - pieceSquareTable.midgame(index, from);
+            endgameScore += pieceSquareTable.endgame(index, to) - pieceSquareTable.endgame(index, from);
         }
+        int team = index / PIECE_KINDS;
+        listSlots[to] = listSlots[from];
+        pieceLists[team][listSlots[to]] = to;
+        if (index % PIECE_KINDS == KING) {
+            kingSquares[team] = Long.numberOfTrailingZeros(pieceBoards[index]);
+        }
+    }
 
-        return true;
+    /**
+     * @return bitboard of the piece kind at a piece index
+     */
+    long pieceBoard(int index) {
+        return pieceBoards[index];
     }
 
-    @Override
-    public int hashCode() {
-        return board.hashCode();
+    /**
+     * @return every piece of either team attacking {@code square}, with sliding attacks
+     * computed against the given occupancy rather than the board's own
+     */
+    long attackersTo(int square, long occupancy) {
+        int black = PIECE_KINDS;
+        long rooks = pieceBoards[ROOK] | pieceBoards[QUEEN] | pieceBoards[black + ROOK] | pieceBoards[black + QUEEN];
+        long bishops = pieceBoards[BISHOP] | pieceBoards[QUEEN] | pieceBoards[black + BISHOP] | pieceBoards[black + QUEEN];
+        return (Attacks.pawnAttacks(ChessGame.TeamColor.BLACK, square) & pieceBoards[PAWN])
+                | (Attacks.pawnAttacks(ChessGame.TeamColor.WHITE, square) & pieceBoards[black + PAWN])
+                | (Attacks.knightAttacks(square) & (pieceBoards[KNIGHT] | pieceBoards[black + KNIGHT]))
+                | (Attacks.kingAttacks(square) & (pieceBoards[KING] | pieceBoards[black + KING]))
+                | (Attacks.rookAttacks(square, occupancy) & rooks)
+                | (Attacks.bishopAttacks(square, occupancy) & bishops);
+    }
+
+    /**
+     * @return the canonical piece for a piece index
+     */
+    static ChessPiece pieceOf(int index) {
+        return PIECES[index];
+    }
+
+    private void recomputeScores() {
+        midgameScore = 0;
+        endgameScore = 0;
+        if (pieceSquareTable == null) {
+            return;
+        }
+        for (long bits = occupied; bits != 0; bits &= bits - 1) {
+            int square = Long.numberOfTrailingZeros(bits);
+            midgameScore += pieceSquareTable.midgame(mailbox[square], square);
+            endgameScore += pieceSquareTable.endgame(mailbox[square], square);
+        }
+    }
+
+    private void clearSquare(int square) {
+        int index = pieceAt(square);
+        if (index >= 0) {
+            removePiece(square, index);
+        }
+    }
+
+    /**
+     * @return FEN letter for a piece index: upper case for White, lower case for Black
+     */
+    static char pieceChar(int index) {
+        char c = "kqbnrp".charAt(index % PIECE_KINDS);
+        return index < PIECE_KINDS ? Character.toUpperCase(c) : c;
     }
 }
@@ -1,7 +1,7 @@
 package chess;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.ArrayList;
 
 /**
  * For a class that can manage a chess game, making moves on a board
@@ -10,13 +10,182 @@ import java.util.ArrayList;
  * signature of the existing methods.
  */
 public class ChessGame {
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = WHITE_KINGSIDE | WHITE_QUEENSIDE | BLACK_KINGSIDE | BLACK_QUEENSIDE;
+
+    private static final int NO_SQUARE = -1;
+
+    /**
+     * Piece values for {@link #see}, in {@link ChessPiece.PieceType} order; the king is
+     * worth more than everything else together so it is never traded
+     */
+    private static final int[] SEE_VALUES = {20_000, 900, 330, 320, 500, 100};
+
+    /**
+     * Piece types in the order {@link #see} brings attackers in, least valuable first
+     */
+    private static final ChessPiece.PieceType[] SEE_ORDER = {
+            ChessPiece.PieceType.PAWN,
+            ChessPiece.PieceType.KNIGHT,
+            ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.QUEEN,
+            ChessPiece.PieceType.KING,
+    };
+
+    /**
+     * Castling rights that survive a move touching each square: moving a king or rook
+     * off its home square, or capturing a rook on it, clears the matching rights.
+     */
+    private static final int[] CASTLING_KEPT = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_KEPT, ALL_CASTLING);
+        CASTLING_KEPT[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_KEPT[0] &= ~WHITE_QUEENSIDE;
+        CASTLING_KEPT[7] &= ~WHITE_KINGSIDE;
+        CASTLING_KEPT[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_KEPT[56] &= ~BLACK_QUEENSIDE;
+        CASTLING_KEPT[63] &= ~BLACK_KINGSIDE;
+    }
+
     private TeamColor currentTurn;
     private ChessBoard board;
+    private MoveGenerator generator;
+    private int castlingRights;
+    private int enPassantSquare;
+    private int halfmoveClock;
+    private int fullmoveNumber;
+    private long stateKey;
+
+    /**
+     * Undo stack: the packed move made at each ply (see {@link Move}), the packed state
+     * it replaced (see {@link #packUndo}) and the Zobrist key of the position before it
+     */
+    private int[] undoMoves;
+    private long[] undoStates;
+    private long[] undoKeys;
+    private int undoCount;
+    private final MoveList scratchMoves = new MoveList();
+
+    /**
+     * Material balance after each capture of a {@link #see} sequence, with room for a
+     * speculative entry past the longest possible sequence of 32 pieces
+     */
+    private final int[] seeGains = new int[34];
+
+    /**
+     * Last computed status per team and the position key it was computed for
+     */
+    private final GameStatus[] statuses = new GameStatus[2];
+    private final long[] statusKeys = new long[2];
 
     public ChessGame() {
         this.currentTurn = TeamColor.WHITE;
         this.board = new ChessBoard();
         this.board.resetBoard();
+        this.generator = new MoveGenerator(board);
+        this.castlingRights = ALL_CASTLING;
+        this.enPassantSquare = NO_SQUARE;
+        this.fullmoveNumber = 1;
+        this.undoMoves = new int[64];
+        this.undoStates = new long[64];
+        this.undoKeys = new long[64];
+        refreshStateKey();
+    }
+
+    /**
+     * Copies a game's position together with its move history, so the copy can take moves
+     * back and see repetitions of positions played before it was made
+     *
+     * @param game the game to copy
+     */
+    public ChessGame(ChessGame game) {
+        this.currentTurn = game.currentTurn;
+        this.board = new ChessBoard();
+        this.board.setBoard(game.board);
+        this.generator = new MoveGenerator(board);
+        this.castlingRights = game.castlingRights;
+        this.enPassantSquare = game.enPassantSquare;
+        this.halfmoveClock = game.halfmoveClock;
+        this.fullmoveNumber = game.fullmoveNumber;
+        this.stateKey = game.stateKey;
+        this.undoMoves = game.undoMoves.clone();
+        this.undoStates = game.undoStates.clone();
+        this.undoKeys = game.undoKeys.clone();
+        this.undoCount = game.undoCount;
+    }
+
+    /**
+     * Creates a game from a FEN record: piece placement, side to move, castling rights,
+     * en passant square and, optionally, the halfmove clock and fullmove number
+     *
+     * @param fen the record, read in place without copying
+     * @return a game at that position with no move history
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    public static ChessGame fromFen(CharSequence fen) {
+        FenParser parser = new FenParser(fen);
+        ChessGame game = new ChessGame();
+        game.board.clear();
+        parser.readPlacement(game.board);
+        game.currentTurn = parser.readSideToMove();
+        game.castlingRights = parser.readCastlingRights();
+        game.enPassantSquare = parser.readEnPassantSquare(game.board, game.currentTurn);
+        game.halfmoveClock = parser.readNumber(0);
+        game.fullmoveNumber = Math.max(1, parser.readNumber(1));
+        parser.expectEnd();
+        game.refreshStateKey();
+        return game;
+    }
+
+    /**
+     * @return the current position as a FEN record
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(90);
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int column = 0; column < 8; column++) {
+                int index = board.pieceAt(row * 8 + column);
+                if (index < 0) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                fen.append(ChessBoard.pieceChar(index));
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (row > 0) {
+                fen.append('/');
+            }
+        }
+        fen.append(currentTurn == TeamColor.WHITE ? " w " : " b ");
+        if (castlingRights == 0) {
+            fen.append('-');
+        } else {
+            // Flag bits are in KQkq order
+            for (int right = 0; right < 4; right++) {
+                if ((castlingRights & (1 << right)) != 0) {
+                    fen.append("KQkq".charAt(right));
+                }
+            }
+        }
+        fen.append(' ');
+        if (enPassantSquare == NO_SQUARE) {
+            fen.append('-');
+        } else {
+            fen.append((char) ('a' + (enPassantSquare & 7))).append((char) ('1' + (enPassantSquare >>> 3)));
+        }
+        return fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber).toString();
     }
 
     /**
@@ -33,6 +202,7 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         this.currentTurn = team;
+        refreshStateKey();
     }
 
     /**
@@ -55,7 +225,86 @@ public class ChessGame {
         if (piece == null) {
             return null;
         }
-        return piece.pieceMoves(board, startPosition);
+        generateMoves(piece.getTeamColor(), 1L << startPosition.getSquare(), scratchMoves);
+        return scratchMoves.toChessMoves();
+    }
+
+    /**
+     * Gets every valid move for a team
+     *
+     * @param teamColor the team to get valid moves for
+     * @return all moves the team could legally make if it were its turn
+     */
+    public Collection<ChessMove> allValidMoves(TeamColor teamColor) {
+        generateMoves(teamColor, ~0L, scratchMoves);
+        return scratchMoves.toChessMoves();
+    }
+
+    /**
+     * Fills {@code moves} with every legal move for the team whose turn it is, as packed
+     * ints (see {@link Move}). The list is cleared first and nothing is allocated once
+     * it has grown to fit, which makes this the entry point for search and perft.
+     *
+     * @param moves list to fill
+     */
+    public void generateMoves(MoveList moves) {
+        generateMoves(currentTurn, ~0L, MoveGenerator.ALL, moves);
+    }
+
+    /**
+     * Fills {@code moves} with the legal captures, en passant captures and promotions of
+     * the team whose turn it is. Together with {@link #generateQuiets} this yields the
+     * same moves as {@link #generateMoves(MoveList)}.
+     *
+     * @param moves list to fill; it is cleared first
+     */
+    public void generateCaptures(MoveList moves) {
+        generateMoves(currentTurn, ~0L, MoveGenerator.NOISY, moves);
+    }
+
+    /**
+     * Fills {@code moves} with the legal moves of the team whose turn it is that neither
+     * capture nor promote, castling included
+     *
+     * @param moves list to fill; it is cleared first
+     */
+    public void generateQuiets(MoveList moves) {
+        generateMoves(currentTurn, ~0L, MoveGenerator.QUIET, moves);
+    }
+
+    /**
+     * Checks a packed move from elsewhere, such as a hash table or another position,
+     * against the current position
+     *
+     * @return the legal move with the same start, end and promotion, flags set for this
+     * position, or {@link Move#NONE} if the side to move has no such move
+     */
+    public int findMove(int move) {
+        if (move == Move.NONE) {
+            return Move.NONE;
+        }
+        generateMoves(currentTurn, 1L << Move.from(move), MoveGenerator.ALL, scratchMoves);
+        for (int i = 0; i < scratchMoves.size(); i++) {
+            if (Move.sameMove(scratchMoves.get(i), move)) {
+                return scratchMoves.get(i);
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * Replaces the contents of {@code moves} with the legal moves of a team's pieces on
+     * {@code fromMask}. En passant is only available to the team whose turn it is.
+     */
+    private void generateMoves(TeamColor teamColor, long fromMask, MoveList moves) {
+        generateMoves(teamColor, fromMask, MoveGenerator.ALL, moves);
+    }
+
+    private void generateMoves(TeamColor teamColor, long fromMask, int kinds, MoveList moves) {
+        moves.clear();
+        generator.analyze(teamColor);
+        int enPassant = teamColor == currentTurn ? enPassantSquare : NO_SQUARE;
+        generator.generate(fromMask, kinds, castlingRights, enPassant, moves);
     }
 
     /**
@@ -65,150 +314,464 @@ public class ChessGame {
      * @throws InvalidMoveException if move is invalid
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
+        if (!move.getStartPosition().isOnBoard() || !move.getEndPosition().isOnBoard()) {
+            throw new InvalidMoveException("Move leaves the board");
+        }
         ChessPiece piece = board.getPiece(move.getStartPosition());
         if (piece == null) {
             throw new InvalidMoveException("No piece at start position");
         }
-        Collection<ChessMove> validMoves = piece.pieceMoves(board, move.getStartPosition());
-
-        if (!validMoves.contains(move)) {
+        if (piece.getTeamColor() != currentTurn) {
+            throw new InvalidMoveException("It is not " + piece.getTeamColor() + "'s turn");
+        }
+        generateMoves(currentTurn, 1L << move.getStartPosition().getSquare(), scratchMoves);
+        int packed = scratchMoves.find(move);
+        if (packed == Move.NONE) {
             throw new InvalidMoveException("Invalid move");
         }
 
-        board.addPiece(move.getEndPosition(), piece);
-        board.addPiece(move.getStartPosition(), null); // Clear start position
-
-        setTeamTurn(currentTurn == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE);
+        makeMove(packed);
     }
 
     /**
-     * Determines if the given team is in check
+     * Takes back the most recent move made on this game, restoring the captured piece,
+     * castling rights, en passant square, move clocks and side to move
      *
-     * @param teamColor which team to check for check
-     * @return True if the specified team is in check
+     * @throws IllegalStateException if there is no move to take back
      */
-    public boolean isInCheck(TeamColor teamColor) {
-        ChessPosition kingPosition = findKingPosition(teamColor);
-        if (kingPosition == null) {
-            return false;
+    public void unmakeMove() {
+        if (undoCount == 0) {
+            throw new IllegalStateException("No move to unmake");
         }
-        TeamColor opponent = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-        for (ChessPosition pos : getAllOpponentPieces(opponent)) {
-            ChessPiece piece = board.getPiece(pos);
-            if (piece != null && piece.pieceMoves(board, pos).contains(new ChessMove(pos, kingPosition, null))) {
-                return true; // King is in check
-            }
+        undoCount--;
+        int move = undoMoves[undoCount];
+        long state = undoStates[undoCount];
+
+        currentTurn = opponentOf(currentTurn);
+        if (currentTurn == TeamColor.BLACK) {
+            fullmoveNumber--;
+        }
+        castlingRights = (int) (state >>> 4) & 0xF;
+        enPassantSquare = (int) ((state >>> 8) & 0x7F) - 1;
+        halfmoveClock = (int) (state >>> 16);
+
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int moved = board.pieceAt(to);
+        if (Move.isPromotion(move)) {
+            board.removePiece(to, moved);
+            moved = ChessBoard.pieceIndex(currentTurn, ChessPiece.PieceType.PAWN);
+            board.putPiece(to, moved);
+        }
+        board.movePiece(to, from, moved);
+
+        int captured = (int) (state & 0xF) - 1;
+        if (captured >= 0) {
+            board.putPiece(Move.isEnPassant(move) ? enPassantVictim(from, to) : to, captured);
+        }
+        if (Move.isCastle(move)) {
+            int rook = ChessBoard.pieceIndex(currentTurn, ChessPiece.PieceType.ROOK);
+            board.movePiece(castlingRookTo(to), castlingRookFrom(to), rook);
         }
-        return false;
+        refreshStateKey();
     }
 
     /**
-     * Determines if the given team is in checkmate
+     * @return the number of moves that can currently be taken back with {@link #unmakeMove()}
+     */
+    public int getMoveHistorySize() {
+        return undoCount;
+    }
+
+    /**
+     * @return the castling rights still available, as a combination of
+     * {@link #WHITE_KINGSIDE}, {@link #WHITE_QUEENSIDE}, {@link #BLACK_KINGSIDE} and {@link #BLACK_QUEENSIDE}
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    /**
+     * Overrides the castling rights for the current position
      *
-     * @param teamColor which team to check for checkmate
-     * @return True if the specified team is in checkmate
+     * @param castlingRights combination of the castling right flags
      */
-    public boolean isInCheckmate(TeamColor teamColor) {
-        if (!isInCheck(teamColor)) {
-            return false;
+    public void setCastlingRights(int castlingRights) {
+        this.castlingRights = castlingRights & ALL_CASTLING;
+        refreshStateKey();
+    }
+
+    /**
+     * @return the square a pawn can be captured on en passant this move, or null if none
+     */
+    public ChessPosition getEnPassantPosition() {
+        return enPassantSquare == NO_SQUARE ? null : ChessPosition.fromSquare(enPassantSquare);
+    }
+
+    /**
+     * Sets the square a pawn that just double-stepped passed over
+     *
+     * @param position the en passant target square, or null to clear it
+     * @throws IllegalArgumentException if the square is not on the opponent's third rank,
+     *                                  is occupied, or has no opponent pawn in front of it
+     */
+    public void setEnPassantPosition(ChessPosition position) {
+        if (position != null && !isEnPassantTarget(board, currentTurn, position.getSquare())) {
+            throw new IllegalArgumentException("No pawn can be captured en passant on " + position);
         }
+        this.enPassantSquare = position == null ? NO_SQUARE : position.getSquare();
+        refreshStateKey();
+    }
 
-        for (ChessPosition pos : getAllTeamPieces(teamColor)) {
-            ChessPiece piece = board.getPiece(pos);
-            Collection<ChessMove> moves = piece.pieceMoves(board, pos);
-            for (ChessMove move : moves) {
-                ChessBoard tempBoard = new ChessBoard();
-                tempBoard.setBoard(this.board);
-                tempBoard.addPiece(move.getEndPosition(), piece);
-                tempBoard.addPiece(move.getStartPosition(), null);
+    /**
+     * @return number of half moves since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
 
-                ChessGame tempGame = new ChessGame();
-                tempGame.setBoard(tempBoard);
+    /**
+     * @return the current full move number, starting at 1 and incremented after Black moves
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
 
-                if (!tempGame.isInCheck(teamColor)) {
-                    return false;
-                }
-            }
+    /**
+     * Makes a packed move (see {@link Move}) in place and records what is needed to take
+     * it back. No validation is done: the move must come from {@link #generateMoves(MoveList)}
+     * for the current position, flags included.
+     *
+     * @param move packed legal move for the team whose turn it is
+     */
+    public void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int moved = board.pieceAt(from);
+        boolean enPassant = Move.isEnPassant(move);
+        int captured = enPassant
+                ? ChessBoard.pieceIndex(opponentOf(currentTurn), ChessPiece.PieceType.PAWN)
+                : board.pieceAt(to);
+        boolean pawnMove = moved == ChessBoard.pieceIndex(currentTurn, ChessPiece.PieceType.PAWN);
+
+        if (undoCount == undoMoves.length) {
+            undoMoves = Arrays.copyOf(undoMoves, undoCount * 2);
+            undoStates = Arrays.copyOf(undoStates, undoCount * 2);
+            undoKeys = Arrays.copyOf(undoKeys, undoCount * 2);
+        }
+        undoMoves[undoCount] = move;
+        undoStates[undoCount] = packUndo(captured);
+        undoKeys[undoCount] = getZobristKey();
+        undoCount++;
+
+        if (captured >= 0) {
+            board.removePiece(enPassant ? enPassantVictim(from, to) : to, captured);
+        }
+        board.movePiece(from, to, moved);
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        if (promotion != null) {
+            board.removePiece(to, moved);
+            board.putPiece(to, ChessBoard.pieceIndex(currentTurn, promotion));
+        }
+        if (Move.isCastle(move)) {
+            int rook = ChessBoard.pieceIndex(currentTurn, ChessPiece.PieceType.ROOK);
+            board.movePiece(castlingRookFrom(to), castlingRookTo(to), rook);
         }
 
-        return true;
+        castlingRights &= CASTLING_KEPT[from] & CASTLING_KEPT[to];
+        enPassantSquare = pawnMove && Math.abs(to - from) == 16 ? (from + to) / 2 : NO_SQUARE;
+        halfmoveClock = pawnMove || captured >= 0 ? 0 : halfmoveClock + 1;
+        if (currentTurn == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
+        currentTurn = opponentOf(currentTurn);
+        refreshStateKey();
     }
 
     /**
-     * Determines if the given team is in stalemate, which here is defined as having
-     * no valid moves
+     * @return 64-bit Zobrist key of the current position: piece placement, side to move,
+     * castling rights and any en passant square that can actually be captured on
+     */
+    public long getZobristKey() {
+        return board.getZobristKey() ^ stateKey;
+    }
+
+    /**
+     * Looks up an earlier position in the move history, for repetition detection
      *
-     * @param teamColor which team to check for stalemate
-     * @return True if the specified team is in stalemate, otherwise false
+     * @param pliesAgo how many moves back, from 1 to {@link #getMoveHistorySize()}
+     * @return the Zobrist key the position had before the move made that many plies ago
+     * @throws IndexOutOfBoundsException if the history does not reach that far back
      */
-    public boolean isInStalemate(TeamColor teamColor) {
-        if (isInCheck(teamColor)) {
-            return false;
+    public long getPreviousZobristKey(int pliesAgo) {
+        if (pliesAgo < 1 || pliesAgo > undoCount) {
+            throw new IndexOutOfBoundsException("No position " + pliesAgo + " plies back in a history of " + undoCount);
         }
+        return undoKeys[undoCount - pliesAgo];
+    }
 
-        for (ChessPosition pos : getAllTeamPieces(teamColor)) {
-            ChessPiece piece = board.getPiece(pos);
-            if (!piece.pieceMoves(board, pos).isEmpty()) {
-                return false;
+    /**
+     * Recomputes the non-placement part of the Zobrist key after the side to move,
+     * castling rights or en passant square change. The placement part is maintained
+     * by the board itself.
+     */
+    private void refreshStateKey() {
+        long key = Zobrist.castling(castlingRights);
+        if (currentTurn == TeamColor.BLACK) {
+            key ^= Zobrist.blackToMove();
+        }
+        if (enPassantSquare != NO_SQUARE) {
+            long capturers = Attacks.pawnAttacks(opponentOf(currentTurn), enPassantSquare)
+                    & board.getPieces(currentTurn, ChessPiece.PieceType.PAWN);
+            if (capturers != 0) {
+                key ^= Zobrist.enPassantFile(enPassantSquare & 7);
             }
         }
+        stateKey = key;
+    }
 
-        return true;
+    /**
+     * Packs the state a move overwrites: captured piece index + 1 (bits 0-3), castling
+     * rights (4-7), en passant square + 1 (8-14) and the halfmove clock (16 and up)
+     */
+    private long packUndo(int captured) {
+        return (captured + 1)
+                | (long) castlingRights << 4
+                | (long) (enPassantSquare + 1) << 8
+                | (long) halfmoveClock << 16;
     }
 
     /**
-     * Sets this game's chessboard with a given board
+     * @return true if the square can be the en passant target with the given team to move:
+     * it is on the opponent's third rank, empty, and the opponent's pawn stands in front of it
+     */
+    static boolean isEnPassantTarget(ChessBoard board, TeamColor sideToMove, int square) {
+        boolean white = sideToMove == TeamColor.WHITE;
+        if (square >>> 3 != (white ? 5 : 2) || board.pieceAt(square) >= 0) {
+            return false;
+        }
+        int victim = white ? square - 8 : square + 8;
+        return board.pieceAt(victim) == ChessBoard.pieceIndex(opponentOf(sideToMove), ChessPiece.PieceType.PAWN);
+    }
+
+    /**
+     * @return the square of the pawn removed by an en passant capture from {@code from} to {@code to}
+     */
+    private static int enPassantVictim(int from, int to) {
+        return (from & ~7) | (to & 7);
+    }
+
+    private static int castlingRookFrom(int kingTo) {
+        return (kingTo & 7) == 6 ? kingTo + 1 : kingTo - 2;
+    }
+
+    private static int castlingRookTo(int kingTo) {
+        return (kingTo & 7) == 6 ? kingTo - 1 : kingTo + 1;
+    }
+
+    private static TeamColor opponentOf(TeamColor teamColor) {
+        return teamColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+    }
+
+    /**
+     * Determines if the given team is in check
      *
-     * @param board the new board to use
+     * @param teamColor which team to check for check
+     * @return True if the specified team is in check
      */
-    public void setBoard(ChessBoard board) {
-        this.board.setBoard(board);
+    public boolean isInCheck(TeamColor teamColor) {
+        int king = board.getKingSquare(teamColor);
+        return king >= 0 && isSquareAttacked(king, opponentOf(teamColor));
     }
 
-    public ChessBoard getBoard() {
-        return this.board;
+    /**
+     * Determines if any piece of a team attacks a square, looking outward from the
+     * square with attack bitboards instead of generating the attacking team's moves
+     *
+     * @param position the square to test
+     * @param byColor  the attacking team
+     * @return True if a piece of {@code byColor} attacks {@code position}
+     */
+    public boolean isSquareAttacked(ChessPosition position, TeamColor byColor) {
+        return isSquareAttacked(position.getSquare(), byColor);
     }
 
-    private ChessPosition findKingPosition(TeamColor teamColor) {
-        for (ChessPosition pos : getAllTeamPieces(teamColor)) {
-            ChessPiece piece = board.getPiece(pos);
-            if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING) {
-                return pos;
-            }
-        }
-        return null;
+    private boolean isSquareAttacked(int square, TeamColor byColor) {
+        return (board.attackersTo(square, board.getOccupancy()) & board.getTeamOccupancy(byColor)) != 0;
     }
 
     /**
-     * Helper method to get all positions of a team's pieces
+     * Static exchange evaluation: the material the side making a move gains once both
+     * sides have made every capture on its target square that pays off, the least
+     * valuable attacker capturing first each time. Attackers revealed behind pieces that
+     * capture (x-rays) join the exchange; pins and checks are ignored.
+     *
+     * @param move a move of a piece on the board, normally a capture
+     * @return gain in centipawns for the moving side, negative if the move loses material
      */
-    private Collection<ChessPosition> getAllTeamPieces(TeamColor teamColor) {
-        Collection<ChessPosition> teamPieces = new ArrayList<>();
+    public int see(ChessMove move) {
+        ChessPiece.PieceType promotion = move.getPromotionPiece();
+        return see(Move.encode(move.getStartPosition().getSquare(), move.getEndPosition().getSquare(), promotion,
+                Move.NONE));
+    }
+
+    /**
+     * {@link #see(ChessMove)} for a packed move; only its squares and promotion are used.
+     * Nothing is allocated.
+     */
+    public int see(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int mover = board.pieceAt(from);
+        if (mover < 0) {
+            throw new IllegalArgumentException("No piece on the start square of " + Move.toChessMove(move));
+        }
+        int moverType = mover % ChessBoard.PIECE_KINDS;
+        TeamColor side = mover < ChessBoard.PIECE_KINDS ? TeamColor.WHITE : TeamColor.BLACK;
+        long occupied = board.getOccupancy() ^ (1L << from);
+
+        int victim = board.pieceAt(to);
+        int gain;
+        if (victim >= 0) {
+            gain = SEE_VALUES[victim % ChessBoard.PIECE_KINDS];
+        } else if (moverType == ChessBoard.PAWN && (from & 7) != (to & 7)) {
+            gain = SEE_VALUES[ChessBoard.PAWN];
+            occupied ^= 1L << enPassantVictim(from, to);
+        } else {
+            gain = 0;
+        }
+        int onSquare = SEE_VALUES[moverType];
+        if (Move.isPromotion(move)) {
+            onSquare = SEE_VALUES[Move.promotion(move).ordinal()];
+            gain += onSquare - SEE_VALUES[ChessBoard.PAWN];
+        }
 
-        for (ChessPosition position : board.getAllPositions()) {
-            ChessPiece piece = board.getPiece(position);
-            if (piece != null && piece.getTeamColor() == teamColor) {
-                teamPieces.add(position);
+        int[] gains = seeGains;
+        gains[0] = gain;
+        int depth = 0;
+        long attackers = board.attackersTo(to, occupied) & occupied;
+        side = opponentOf(side);
+        while (true) {
+            // Speculative: what the last capture nets if the piece it left is taken in turn
+            depth++;
+            gains[depth] = onSquare - gains[depth - 1];
+            if (Math.max(-gains[depth - 1], gains[depth]) < 0) {
+                // Neither side can do better than stopping here
+                break;
+            }
+            long ours = attackers & board.getTeamOccupancy(side);
+            ChessPiece.PieceType type = null;
+            long attacker = 0;
+            for (ChessPiece.PieceType candidate : SEE_ORDER) {
+                attacker = ours & board.getPieces(side, candidate);
+                if (attacker != 0) {
+                    type = candidate;
+                    break;
+                }
             }
+            if (type == null) {
+                break;
+            }
+            attacker &= -attacker;
+            if (type == ChessPiece.PieceType.KING
+                    && (attackers & ~attacker & board.getTeamOccupancy(opponentOf(side))) != 0) {
+                // The king cannot capture onto a square that is still defended
+                break;
+            }
+            onSquare = SEE_VALUES[type.ordinal()];
+            occupied ^= attacker;
+            attackers = board.attackersTo(to, occupied) & occupied;
+            side = opponentOf(side);
         }
+        while (--depth > 0) {
+            gains[depth - 1] = -Math.max(-gains[depth - 1], gains[depth]);
+        }
+        return gains[0];
+    }
 
-        return teamPieces;
+    /**
+     * Determines if the given team is in checkmate
+     *
+     * @param teamColor which team to check for checkmate
+     * @return True if the specified team is in checkmate
+     */
+    public boolean isInCheckmate(TeamColor teamColor) {
+        return getGameStatus(teamColor).isCheckmate();
     }
 
     /**
-     * Helper method to get all positions of the opponent's pieces
+     * Determines if the given team is in stalemate, which here is defined as having
+     * no valid moves
+     *
+     * @param teamColor which team to check for stalemate
+     * @return True if the specified team is in stalemate, otherwise false
      */
-    private Collection<ChessPosition> getAllOpponentPieces(TeamColor teamColor) {
-        Collection<ChessPosition> opponentPieces = new ArrayList<>();
-        TeamColor opponentColor = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+    public boolean isInStalemate(TeamColor teamColor) {
+        return getGameStatus(teamColor).isStalemate();
+    }
 
-        for (ChessPosition position : board.getAllPositions()) {
-            ChessPiece piece = board.getPiece(position);
-            if (piece != null && piece.getTeamColor() == opponentColor) {
-                opponentPieces.add(position);
+    /**
+     * Gets check, checkmate and stalemate state for a team in one move generation pass.
+     * The result is memoized against the position's Zobrist key, so repeated queries
+     * return the same object until a move or any other change alters the position.
+     *
+     * @param teamColor the team to evaluate
+     * @return the team's status in the current position
+     */
+    public GameStatus getGameStatus(TeamColor teamColor) {
+        int team = teamColor.ordinal();
+        long key = getZobristKey();
+        GameStatus status = statuses[team];
+        if (status == null || statusKeys[team] != key) {
+            generateMoves(teamColor, ~0L, scratchMoves);
+            status = new GameStatus(teamColor, generator.inCheck(), scratchMoves.size());
+            statuses[team] = status;
+            statusKeys[team] = key;
+        }
+        return status;
+    }
+
+    /**
+     * Sets this game's chessboard with a given board
+     *
+     * @param board the new board to use
+     */
+    public void setBoard(ChessBoard board) {
+        this.board.setBoard(board);
+        this.castlingRights = homeCastlingRights();
+        this.enPassantSquare = NO_SQUARE;
+        this.halfmoveClock = 0;
+        this.fullmoveNumber = 1;
+        this.undoCount = 0;
+        refreshStateKey();
+    }
+
+    /**
+     * Castling rights implied by kings and rooks standing on their home squares,
+     * used when a position is loaded without any move history
+     */
+    private int homeCastlingRights() {
+        int rights = 0;
+        for (TeamColor color : TeamColor.values()) {
+            int homeRow = color == TeamColor.WHITE ? 0 : 56;
+            long king = board.getPieces(color, ChessPiece.PieceType.KING);
+            long rooks = board.getPieces(color, ChessPiece.PieceType.ROOK);
+            if ((king & (1L << (homeRow + 4))) == 0) {
+                continue;
+            }
+            int kingside = color == TeamColor.WHITE ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+            int queenside = color == TeamColor.WHITE ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+            if ((rooks & (1L << (homeRow + 7))) != 0) {
+                rights |= kingside;
+            }
+            if ((rooks & (1L << homeRow)) != 0) {
+                rights |= queenside;
             }
         }
+        return rights;
+    }
 
-        return opponentPieces;
+    public ChessBoard getBoard() {
+        return this.board;
     }
 }
@@ -8,9 +8,17 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessMove {
-    private ChessPosition startPosition;
-    private ChessPosition endPosition;
-    private ChessPiece.PieceType promotionPiece;
+    private static final int PROMOTION_SLOTS = ChessPiece.PieceType.values().length + 1;
+
+    /**
+     * Canonical moves indexed by from square, to square and promotion, created on first use.
+     * A racing thread may create a duplicate, which is harmless because moves are immutable.
+     */
+    private static final ChessMove[] MOVES = new ChessMove[64 * 64 * PROMOTION_SLOTS];
+
+    private final ChessPosition startPosition;
+    private final ChessPosition endPosition;
+    private final ChessPiece.PieceType promotionPiece;
 
     public ChessMove(ChessPosition startPosition, ChessPosition endPosition, ChessPiece.PieceType promotionPiece) {
         this.startPosition = startPosition;
@@ -18,6 +26,34 @@ public class ChessMove {
         this.promotionPiece = promotionPiece;
     }
 
+    /**
+     * Returns the shared instance for a move between two squares
+     *
+     * @param from           start square index (see {@link ChessPosition#getSquare()})
+     * @param to             end square index
+     * @param promotionPiece type to promote to, or null
+     * @return the cached move
+     */
+    public static ChessMove of(int from, int to, ChessPiece.PieceType promotionPiece) {
+        int slot = promotionPiece == null ? 0 : promotionPiece.ordinal() + 1;
+        int index = (from * 64 + to) * PROMOTION_SLOTS + slot;
+        ChessMove move = MOVES[index];
+        if (move == null) {
+            move = new ChessMove(ChessPosition.fromSquare(from), ChessPosition.fromSquare(to), promotionPiece);
+            MOVES[index] = move;
+        }
+        return move;
+    }
+
+    /**
+     * Returns the shared instance for a move between two on-board positions
+     *
+     * @return the cached move
+     */
+    public static ChessMove of(ChessPosition startPosition, ChessPosition endPosition, ChessPiece.PieceType promotionPiece) {
+        return of(startPosition.getSquare(), endPosition.getSquare(), promotionPiece);
+    }
+
     /**
      * @return ChessPosition of starting location
      */
@@ -1,6 +1,5 @@
 package chess;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Objects;
 
@@ -12,14 +11,34 @@ import java.util.Objects;
  */
 public class ChessPiece {
 
-    private ChessGame.TeamColor teamColor;
-    private ChessPiece.PieceType pieceType;
+    private static final ChessPiece[][] PIECES = new ChessPiece[2][PieceType.values().length];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[color.ordinal()][type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
+    private final ChessGame.TeamColor teamColor;
+    private final ChessPiece.PieceType pieceType;
 
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         this.teamColor = pieceColor;
         this.pieceType = type;
     }
 
+    /**
+     * Returns the shared instance for a colored piece kind. Pieces are immutable, so there
+     * only ever needs to be one of each.
+     *
+     * @return the cached piece
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return PIECES[pieceColor.ordinal()][type.ordinal()];
+    }
+
     @Override
     public String toString() {
         return "ChessPiece{" +
@@ -62,48 +81,14 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> moves = new ArrayList<>();
-
-        switch (pieceType) {
-            case KING:
-                moves = kingMoves(board, myPosition);
-                break;
-            case QUEEN:
-                moves = queenMoves(board, myPosition);
-                break;
-        }
-        return moves;
-    }
-
-    private Collection<ChessMove> kingMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> moves = new ArrayList<>();
-        int[][] directions = {
-                {1, 0}, {-1, 0}, {0, 1}, {0, -1},
-                {1, 1}, {-1, 1}, {1, -1}, {-1, -1},
-        };
-        for (int[] direction : directions) {
-            ChessPosition newPos = myPosition.translate(direction[0], direction[1]);
-            if (board.isValidPosition(newPos) && board.isMoveLegal(myPosition, newPos)) {
-                moves.add(new ChessMove(myPosition, newPos, null));
-            }
-        }
-        return moves;
-    }
-
-    private Collection<ChessMove> queenMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> moves = new ArrayList<>();
-        int[][] directions = {
-                {1, 0}, {-1, 0}, {0, 1}, {0, -1},
-                {1, 1}, {-1, 1}, {1, -1}, {-1, -1},
-        };
-        for (int[] direction : directions) {
-            ChessPosition newPos = myPosition.translate(direction[0], direction[1]);
-            while (board.isValidPosition(newPos) && board.isMoveLegal(myPosition, newPos)) {
-                moves.add(new ChessMove(myPosition, newPos, null));
-                newPos = newPos.translate(direction[0], direction[1]);  // Move further in the same direction
-            }
-        }
-        return moves;
+        MoveList moves = new MoveList();
+        int square = myPosition.getSquare();
+        long targets = MoveGenerator.pseudoTargets(board, ChessBoard.pieceIndex(teamColor, pieceType), square);
+        boolean promotes = pieceType == PieceType.PAWN && MoveGenerator.isPromotionRow(teamColor, square);
+        long enemies = board.getTeamOccupancy(teamColor == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        MoveGenerator.addMoves(square, targets, enemies, promotes, moves);
+        return moves.toChessMoves();
     }
 
 
@@ -8,14 +8,37 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessPosition {
-    private int row;
-    private int column;
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition((square >>> 3) + 1, (square & 7) + 1);
+        }
+    }
+
+    private final int row;
+    private final int column;
 
     public ChessPosition(int row, int col) {
         this.row = row - 1;
         this.column = col - 1;
     }
 
+    /**
+     * Returns the shared instance for a square. Positions are immutable, so the engine
+     * uses these instead of allocating a new position for every move it generates.
+     *
+     * @param row 1-based row
+     * @param col 1-based column
+     * @return the cached position, or a new one if the coordinates are off the board
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return SQUARES[(row - 1) * 8 + col - 1];
+    }
+
     @Override
     public String toString() {
         return "ChessPosition{" +
@@ -33,7 +56,35 @@ public class ChessPosition {
     }
 
     public ChessPosition translate(int rowOffset, int colOffset) {
-        return new ChessPosition(this.getRow() + rowOffset, this.getColumn() + colOffset);
+        return of(this.getRow() + rowOffset, this.getColumn() + colOffset);
+    }
+
+    /**
+     * @return true if both the row and the column are between 1 and 8
+     */
+    public boolean isOnBoard() {
+        return row >= 0 && row < 8 && column >= 0 && column < 8;
+    }
+
+    /**
+     * @return the bitboard square index of this position (a1 = 0, h1 = 7, a8 = 56, h8 = 63)
+     * @throws IllegalArgumentException if the position is off the board
+     */
+    public int getSquare() {
+        if (!isOnBoard()) {
+            throw new IllegalArgumentException("Position is off the board: " + this);
+        }
+        return row * 8 + column;
+    }
+
+    /**
+     * Gets the shared position for a bitboard square index
+     *
+     * @param square square index between 0 and 63
+     * @return the matching position
+     */
+    public static ChessPosition fromSquare(int square) {
+        return SQUARES[square];
     }
 
     @Override
@@ -0,0 +1,176 @@
+package chess;
+
+/**
+ * Reads the fields of a FEN record straight from a {@link CharSequence} with a cursor,
+ * without splitting, copying or regular expressions.
+ * <p>
+ * The placement, side to move, castling and en passant fields are required; the
+ * halfmove clock and fullmove number may be omitted and default to 0 and 1.
+ */
+final class FenParser {
+
+    private final CharSequence fen;
+    private int index;
+
+    FenParser(CharSequence fen) {
+        this.fen = fen;
+    }
+
+    /**
+     * Places the pieces of the placement field on an empty board
+     */
+    void readPlacement(ChessBoard board) {
+        skipSpaces();
+        int row = 7;
+        int column = 0;
+        while (index < fen.length() && fen.charAt(index) != ' ') {
+            char c = fen.charAt(index);
+            if (c == '/') {
+                if (column != 8 || row == 0) {
+                    throw error("rank does not have 8 squares");
+                }
+                row--;
+                column = 0;
+            } else if (c >= '1' && c <= '8') {
+                column += c - '0';
+            } else {
+                int piece = pieceIndex(c);
+                if (piece < 0) {
+                    throw error("unknown piece '" + c + "'");
+                }
+                if (column > 7) {
+                    throw error("rank does not have 8 squares");
+                }
+                board.putPiece(row * 8 + column, piece);
+                column++;
+            }
+            if (column > 8) {
+                throw error("rank does not have 8 squares");
+            }
+            index++;
+        }
+        if (row != 0 || column != 8) {
+            throw error("placement does not cover 8 ranks");
+        }
+    }
+
+    ChessGame.TeamColor readSideToMove() {
+        skipSpaces();
+        char c = next();
+        if (c == 'w') {
+            return ChessGame.TeamColor.WHITE;
+        } else if (c == 'b') {
+            return ChessGame.TeamColor.BLACK;
+        }
+        throw error("side to move must be 'w' or 'b'");
+    }
+
+    int readCastlingRights() {
+        skipSpaces();
+        if (peek() == '-') {
+            index++;
+            return 0;
+        }
+        int rights = 0;
+        while (index < fen.length() && fen.charAt(index) != ' ') {
+            rights |= switch (fen.charAt(index)) {
+                case 'K' -> ChessGame.WHITE_KINGSIDE;
+                case 'Q' -> ChessGame.WHITE_QUEENSIDE;
+                case 'k' -> ChessGame.BLACK_KINGSIDE;
+                case 'q' -> ChessGame.BLACK_QUEENSIDE;
+                default -> throw error("unknown castling right '" + fen.charAt(index) + "'");
+            };
+            index++;
+        }
+        if (rights == 0) {
+            throw error("missing castling rights");
+        }
+        return rights;
+    }
+
+    /**
+     * @param board      the placed pieces
+     * @param sideToMove the team that could capture en passant
+     * @return the en passant target square index, or -1 for '-'
+     */
+    int readEnPassantSquare(ChessBoard board, ChessGame.TeamColor sideToMove) {
+        skipSpaces();
+        char file = next();
+        if (file == '-') {
+            return -1;
+        }
+        char rank = next();
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            throw error("invalid en passant square");
+        }
+        int square = (rank - '1') * 8 + (file - 'a');
+        if (!ChessGame.isEnPassantTarget(board, sideToMove, square)) {
+            throw error("en passant square does not follow a double pawn step");
+        }
+        return square;
+    }
+
+    /**
+     * @return the next number, or {@code missing} if the record has ended
+     */
+    int readNumber(int missing) {
+        skipSpaces();
+        if (index == fen.length()) {
+            return missing;
+        }
+        int start = index;
+        int value = 0;
+        while (index < fen.length() && fen.charAt(index) >= '0' && fen.charAt(index) <= '9') {
+            value = value * 10 + (fen.charAt(index) - '0');
+            if (value > 1_000_000) {
+                throw error("number out of range");
+            }
+            index++;
+        }
+        if (index == start) {
+            throw error("expected a number");
+        }
+        return value;
+    }
+
+    /**
+     * Fails if anything other than trailing spaces remains
+     */
+    void expectEnd() {
+        skipSpaces();
+        if (index != fen.length()) {
+            throw error("unexpected trailing characters");
+        }
+    }
+
+    private static int pieceIndex(char c) {
+        int type = "kqbnrp".indexOf(Character.toLowerCase(c));
+        if (type < 0) {
+            return -1;
+        }
+        return (Character.isUpperCase(c) ? 0 : ChessBoard.PIECE_KINDS) + type;
+    }
+
+    private void skipSpaces() {
+        while (index < fen.length() && fen.charAt(index) == ' ') {
+            index++;
+        }
+    }
+
+    private char peek() {
+        if (index == fen.length()) {
+            throw error("record ends early");
+        }
+        return fen.charAt(index);
+    }
+
+    private char next() {
+        char c = peek();
+        index++;
+        return c;
+    }
+
+    private IllegalArgumentException error(String reason) {
+        return new IllegalArgumentException("Invalid FEN at index " + index + ": " + reason + " in \"" + fen + "\"");
+    }
+}
@@ -0,0 +1,26 @@
+package chess;
+
+/**
+ * Check, checkmate and stalemate state of one team in a position, computed with a single
+ * legal move generation pass
+ *
+ * @param team           the team the status describes
+ * @param inCheck        whether the team's king is attacked
+ * @param legalMoveCount number of legal moves the team has
+ */
+public record GameStatus(ChessGame.TeamColor team, boolean inCheck, int legalMoveCount) {
+
+    /**
+     * @return true if the team is in check with no legal move
+     */
+    public boolean isCheckmate() {
+        return inCheck && legalMoveCount == 0;
+    }
+
+    /**
+     * @return true if the team is not in check but has no legal move
+     */
+    public boolean isStalemate() {
+        return !inCheck && legalMoveCount == 0;
+    }
+}
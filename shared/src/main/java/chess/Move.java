@@ -0,0 +1,93 @@
+package chess;
+
+/**
+ * Packed int encoding of a move, used by the engine internals so move generation and
+ * search never allocate. {@link ChessMove} objects are only created at the public API
+ * boundary via {@link #toChessMove(int)}.
+ * <p>
+ * Layout: bits 0-5 start square, 6-11 end square, 12-14 promotion piece type
+ * (ordinal + 1, 0 for none), then one bit each for capture, en passant and castling.
+ * Squares are indexed as in {@link ChessPosition#getSquare()}.
+ */
+public final class Move {
+
+    /**
+     * Value that never encodes a real move
+     */
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int EN_PASSANT = 1 << 16;
+    public static final int CASTLE = 1 << 17;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    /**
+     * @param from      start square
+     * @param to        end square
+     * @param promotion piece type to promote to, or null
+     * @param flags     combination of {@link #CAPTURE}, {@link #EN_PASSANT} and {@link #CASTLE}
+     * @return the packed move
+     */
+    public static int encode(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        return from | to << 6 | (promotion == null ? 0 : (promotion.ordinal() + 1) << 12) | flags;
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * @return the promotion piece type, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotion = (move >>> 12) & 0x7;
+        return promotion == 0 ? null : TYPES[promotion - 1];
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & (0x7 << 12)) != 0;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    /**
+     * @return true if both encodings describe the same from, to and promotion, ignoring flags
+     */
+    public static boolean sameMove(int move, int other) {
+        return (move & 0x7FFF) == (other & 0x7FFF);
+    }
+
+    /**
+     * @return the shared {@link ChessMove} for a packed move
+     */
+    public static ChessMove toChessMove(int move) {
+        return ChessMove.of(from(move), to(move), promotion(move));
+    }
+
+    /**
+     * @return true if the packed move has the same from, to and promotion as {@code move}
+     */
+    public static boolean matches(int packed, ChessMove move) {
+        return from(packed) == move.getStartPosition().getSquare()
+                && to(packed) == move.getEndPosition().getSquare()
+                && promotion(packed) == move.getPromotionPiece();
+    }
+}
@@ -0,0 +1,285 @@
+package chess;
+
+/**
+ * Generates fully legal moves for one team without trying them on the board.
+ * <p>
+ * {@link #analyze} computes, once per position, the pieces giving check, a mask of
+ * squares that resolve a single check (capturing the checker or blocking its ray),
+ * every absolutely pinned piece with the ray it may still move along, and the squares
+ * the king cannot step onto. {@link #generate} then filters each piece's pseudo-legal
+ * targets through those masks. En passant is the only move verified by recomputing
+ * attacks, since it removes two pieces from the same rank at once.
+ * <p>
+ * Generation can be limited to {@link #NOISY} moves (captures and promotions) or
+ * {@link #QUIET} moves (everything else, castling included) so a search can generate
+ * the moves it is most likely to need first.
+ * <p>
+ * Moves are emitted as packed ints (see {@link Move}) into a reusable {@link MoveList}.
+ */
+final class MoveGenerator {
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN,
+            ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.KNIGHT,
+    };
+
+    /**
+     * Captures, en passant and promotions
+     */
+    static final int NOISY = 1;
+
+    /**
+     * Moves that neither capture nor promote, castling included
+     */
+    static final int QUIET = 2;
+
+    static final int ALL = NOISY | QUIET;
+
+    private final ChessBoard board;
+    private final long[] pinRays = new long[64];
+
+    private ChessGame.TeamColor us;
+    private int kingSquare;
+    private long checkers;
+    private long checkMask;
+    private long pinned;
+    private long kingDanger;
+    private boolean analyzed;
+    private long analyzedKey;
+
+    MoveGenerator(ChessBoard board) {
+        this.board = board;
+    }
+
+    /**
+     * Computes checkers, pins and king danger squares for the given team.
+     * Must be called again after the board changes; it returns at once if the team and
+     * the board's placement key are the same as for the last call, so several generation
+     * calls on one position share a single analysis.
+     */
+    void analyze(ChessGame.TeamColor team) {
+        if (analyzed && team == us && board.getZobristKey() == analyzedKey) {
+            return;
+        }
+        this.analyzed = true;
+        this.analyzedKey = board.getZobristKey();
+        this.us = team;
+        ChessGame.TeamColor them = opponentOf(team);
+        kingSquare = board.getKingSquare(team);
+        checkers = 0L;
+        checkMask = ~0L;
+        pinned = 0L;
+        kingDanger = 0L;
+        if (kingSquare < 0) {
+            return;
+        }
+        long king = 1L << kingSquare;
+
+        long occupied = board.getOccupancy();
+        long ours = board.getTeamOccupancy(team);
+        long theirs = board.getTeamOccupancy(them);
+
+        checkers = board.attackersTo(kingSquare, occupied) & theirs;
+        if (checkers != 0) {
+            checkMask = Long.bitCount(checkers) > 1
+                    ? 0L
+                    : checkers | Attacks.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+        }
+        // The king must not be able to hide "behind itself" along a slider's ray
+        kingDanger = attackedSquares(them, occupied ^ king);
+
+        long queens = board.getPieces(them, ChessPiece.PieceType.QUEEN);
+        long rooks = board.getPieces(them, ChessPiece.PieceType.ROOK) | queens;
+        long bishops = board.getPieces(them, ChessPiece.PieceType.BISHOP) | queens;
+        long snipers = (Attacks.rookAttacks(kingSquare, theirs) & rooks)
+                | (Attacks.bishopAttacks(kingSquare, theirs) & bishops);
+        for (; snipers != 0; snipers &= snipers - 1) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            long ray = Attacks.between(kingSquare, sniper);
+            long blockers = ray & occupied;
+            if (Long.bitCount(blockers) == 1 && (blockers & ours) != 0) {
+                pinned |= blockers;
+                pinRays[Long.numberOfTrailingZeros(blockers)] = ray | (1L << sniper);
+            }
+        }
+    }
+
+    /**
+     * @return true if the analyzed team's king is attacked
+     */
+    boolean inCheck() {
+        return checkers != 0;
+    }
+
+    /**
+     * Adds every legal move of the analyzed team's pieces standing on {@code fromMask}
+     *
+     * @param fromMask        squares whose pieces should be generated
+     * @param castlingRights  castling rights still available in the position
+     * @param enPassantSquare en passant target square for this team, or -1
+     * @param moves           list receiving the moves
+     */
+    void generate(long fromMask, int castlingRights, int enPassantSquare, MoveList moves) {
+        generate(fromMask, ALL, castlingRights, enPassantSquare, moves);
+    }
+
+    /**
+     * Adds the legal moves of the given kinds of the analyzed team's pieces standing on
+     * {@code fromMask}
+     *
+     * @param kinds {@link #NOISY}, {@link #QUIET} or {@link #ALL}
+     */
+    void generate(long fromMask, int kinds, int castlingRights, int enPassantSquare, MoveList moves) {
+        long ours = board.getTeamOccupancy(us);
+        long theirs = board.getTeamOccupancy(opponentOf(us));
+        long targetMask = ((kinds & NOISY) != 0 ? theirs : 0L) | ((kinds & QUIET) != 0 ? ~theirs : 0L);
+        if (kingSquare >= 0 && (fromMask & (1L << kingSquare)) != 0) {
+            addMoves(kingSquare, Attacks.kingAttacks(kingSquare) & ~ours & ~kingDanger & targetMask, theirs, false,
+                    moves);
+            if (checkers == 0 && (kinds & QUIET) != 0) {
+                addCastling(castlingRights, moves);
+            }
+        }
+        if (Long.bitCount(checkers) > 1) {
+            return;
+        }
+
+        int pawnIndex = ChessBoard.pieceIndex(us, ChessPiece.PieceType.PAWN);
+        long pieces = fromMask & ours & ~(kingSquare >= 0 ? 1L << kingSquare : 0L);
+        for (; pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            int index = board.pieceAt(square);
+            long targets = pseudoTargets(board, index, square) & checkMask;
+            if ((pinned & (1L << square)) != 0) {
+                targets &= pinRays[square];
+            }
+            boolean pawn = index == pawnIndex;
+            boolean promotes = pawn && isPromotionRow(us, square);
+            if (!promotes) {
+                targets &= targetMask;
+            } else if ((kinds & NOISY) == 0) {
+                targets = 0L;
+            }
+            addMoves(square, targets, theirs, promotes, moves);
+
+            if (pawn && (kinds & NOISY) != 0 && enPassantSquare >= 0
+                    && (Attacks.pawnAttacks(us, square) & (1L << enPassantSquare)) != 0
+                    && isEnPassantLegal(square, enPassantSquare)) {
+                moves.add(Move.encode(square, enPassantSquare, null, Move.CAPTURE | Move.EN_PASSANT));
+            }
+        }
+    }
+
+    /**
+     * @return squares a piece may move to ignoring checks and pins: attacked squares not
+     * held by its own team, or pushes and captures for pawns
+     */
+    static long pseudoTargets(ChessBoard board, int index, int square) {
+        ChessGame.TeamColor color = ChessGame.TeamColor.values()[index / ChessBoard.PIECE_KINDS];
+        int type = index % ChessBoard.PIECE_KINDS;
+        long occupied = board.getOccupancy();
+        if (type != ChessBoard.PAWN) {
+            ChessPiece.PieceType pieceType = ChessPiece.PieceType.values()[type];
+            return Attacks.attacks(pieceType, color, square, occupied) & ~board.getTeamOccupancy(color);
+        }
+
+        long targets = Attacks.pawnAttacks(color, square) & board.getTeamOccupancy(opponentOf(color));
+        int forward = color == ChessGame.TeamColor.WHITE ? 8 : -8;
+        int oneStep = square + forward;
+        if (oneStep >= 0 && oneStep < 64 && (occupied & (1L << oneStep)) == 0) {
+            targets |= 1L << oneStep;
+            int startRow = color == ChessGame.TeamColor.WHITE ? 1 : 6;
+            int twoStep = oneStep + forward;
+            if (square >>> 3 == startRow && (occupied & (1L << twoStep)) == 0) {
+                targets |= 1L << twoStep;
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Adds a move from {@code from} to each target, expanded into the four promotion
+     * choices when a pawn reaches the last row. Targets on {@code enemies} are flagged
+     * as captures.
+     */
+    static void addMoves(int from, long targets, long enemies, boolean promotes, MoveList moves) {
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            int flags = (enemies & (1L << to)) != 0 ? Move.CAPTURE : 0;
+            if (promotes) {
+                for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                    moves.add(Move.encode(from, to, promotion, flags));
+                }
+            } else {
+                moves.add(Move.encode(from, to, null, flags));
+            }
+        }
+    }
+
+    /**
+     * @return true if a pawn of {@code color} on {@code square} promotes with its next step
+     */
+    static boolean isPromotionRow(ChessGame.TeamColor color, int square) {
+        return square >>> 3 == (color == ChessGame.TeamColor.WHITE ? 6 : 1);
+    }
+
+    /**
+     * @return every square attacked by {@code color} given the occupancy
+     */
+    long attackedSquares(ChessGame.TeamColor color, long occupied) {
+        long attacked = 0L;
+        for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+            for (long pieces = board.getPieces(color, type); pieces != 0; pieces &= pieces - 1) {
+                attacked |= Attacks.attacks(type, color, Long.numberOfTrailingZeros(pieces), occupied);
+            }
+        }
+        return attacked;
+    }
+
+    private void addCastling(int castlingRights, MoveList moves) {
+        boolean white = us == ChessGame.TeamColor.WHITE;
+        int home = white ? 4 : 60;
+        if (kingSquare != home) {
+            return;
+        }
+        long occupied = board.getOccupancy();
+        long rooks = board.getPieces(us, ChessPiece.PieceType.ROOK);
+        int kingside = white ? ChessGame.WHITE_KINGSIDE : ChessGame.BLACK_KINGSIDE;
+        int queenside = white ? ChessGame.WHITE_QUEENSIDE : ChessGame.BLACK_QUEENSIDE;
+
+        if ((castlingRights & kingside) != 0 && (rooks & (1L << (home + 3))) != 0) {
+            long path = (1L << (home + 1)) | (1L << (home + 2));
+            if ((occupied & path) == 0 && (kingDanger & path) == 0) {
+                moves.add(Move.encode(home, home + 2, null, Move.CASTLE));
+            }
+        }
+        if ((castlingRights & queenside) != 0 && (rooks & (1L << (home - 4))) != 0) {
+            long empty = (1L << (home - 1)) | (1L << (home - 2)) | (1L << (home - 3));
+            long path = (1L << (home - 1)) | (1L << (home - 2));
+            if ((occupied & empty) == 0 && (kingDanger & path) == 0) {
+                moves.add(Move.encode(home, home - 2, null, Move.CASTLE));
+            }
+        }
+    }
+
+    /**
+     * An en passant capture removes the capturing and the captured pawn from the same
+     * rank, which can expose the king in ways the pin masks do not see, so it is checked
+     * against the resulting occupancy directly.
+     */
+    private boolean isEnPassantLegal(int from, int to) {
+        if (kingSquare < 0) {
+            return true;
+        }
+        int victim = (from & ~7) | (to & 7);
+        long occupied = (board.getOccupancy() ^ (1L << from) ^ (1L << victim)) | (1L << to);
+        long theirs = board.getTeamOccupancy(opponentOf(us)) & ~(1L << victim);
+        return (board.attackersTo(kingSquare, occupied) & theirs) == 0;
+    }
+
+    private static ChessGame.TeamColor opponentOf(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+}
@@ -0,0 +1,92 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Reusable, growable buffer of packed moves (see {@link Move}). Clearing keeps the backing
+ * array, so a list held per search ply is filled again and again without allocating.
+ */
+public final class MoveList {
+
+    /**
+     * Enough for any legal chess position (the known maximum is 218 moves)
+     */
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this.moves = new int[DEFAULT_CAPACITY];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public void swap(int first, int second) {
+        int move = moves[first];
+        moves[first] = moves[second];
+        moves[second] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return true if the list holds a move with the same from, to and promotion
+     */
+    public boolean contains(ChessMove move) {
+        for (int i = 0; i < size; i++) {
+            if (Move.matches(moves[i], move)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the packed form of {@code move} as found in this list, or {@link Move#NONE}
+     */
+    public int find(ChessMove move) {
+        for (int i = 0; i < size; i++) {
+            if (Move.matches(moves[i], move)) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * Materializes the moves as {@link ChessMove} objects for the public API
+     */
+    public Collection<ChessMove> toChessMoves() {
+        Collection<ChessMove> chessMoves = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            chessMoves.add(Move.toChessMove(moves[i]));
+        }
+        return chessMoves;
+    }
+}
@@ -0,0 +1,168 @@
+package chess;
+
+import chess.notation.Uci;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Perft ("performance test") counts the leaf nodes of the legal move tree to a fixed
+ * depth. The counts for well-known positions are published, so any deviation points
+ * at a move generation bug, and the time taken gives the generator's throughput.
+ * <p>
+ * Run {@code main} with no arguments to check every reference position, or with
+ * {@code <position> <depth>} to print a divide (per root move counts) for one position.
+ */
+public final class Perft {
+
+    /**
+     * Standard reference positions with their known node counts, indexed by depth - 1
+     */
+    public enum Position {
+        START("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                20, 400, 8_902, 197_281, 4_865_609),
+        KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                48, 2_039, 97_862, 4_085_603),
+        ENDGAME("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                14, 191, 2_812, 43_238, 674_624),
+        PROMOTIONS("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                6, 264, 9_467, 422_333),
+        TACTICAL("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                44, 1_486, 62_379, 2_103_487);
+
+        private final String fen;
+        private final long[] nodes;
+
+        Position(String fen, long... nodes) {
+            this.fen = fen;
+            this.nodes = nodes;
+        }
+
+        /**
+         * @return the position as a FEN record
+         */
+        public String fen() {
+            return fen;
+        }
+
+        /**
+         * @return a new game set up at this position
+         */
+        public ChessGame createGame() {
+            return ChessGame.fromFen(fen);
+        }
+
+        /**
+         * @return the deepest depth with a known node count
+         */
+        public int maxDepth() {
+            return nodes.length;
+        }
+
+        /**
+         * @return the published node count at a depth
+         */
+        public long expectedNodes(int depth) {
+            return nodes[depth - 1];
+        }
+    }
+
+    private Perft() {
+    }
+
+    /**
+     * Counts leaf nodes of the legal move tree from the game's current position
+     *
+     * @param game  the game to search; it is returned to its original position
+     * @param depth number of plies to expand
+     * @return number of move sequences of exactly {@code depth} plies
+     */
+    public static long perft(ChessGame game, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList[] lists = new MoveList[depth];
+        for (int i = 0; i < depth; i++) {
+            lists[i] = new MoveList();
+        }
+        return perft(game, depth, lists);
+    }
+
+    /**
+     * Recursive count using one preallocated move list per remaining depth, so the
+     * tree walk itself never allocates
+     */
+    private static long perft(ChessGame game, int depth, MoveList[] lists) {
+        MoveList moves = lists[depth - 1];
+        game.generateMoves(moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.makeMove(moves.get(i));
+            nodes += perft(game, depth - 1, lists);
+            game.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts leaf nodes below each legal root move, which narrows a node count mismatch
+     * down to the root move whose subtree is wrong
+     *
+     * @return node count per root move, in generation order
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        MoveList moves = new MoveList();
+        game.generateMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            game.makeMove(moves.get(i));
+            counts.put(Move.toChessMove(moves.get(i)), perft(game, depth - 1));
+            game.unmakeMove();
+        }
+        return counts;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 2) {
+            printDivide(Position.valueOf(args[0].toUpperCase()), Integer.parseInt(args[1]), System.out);
+            return;
+        }
+        boolean passed = true;
+        for (Position position : Position.values()) {
+            passed &= run(position, position.maxDepth() - 1, System.out);
+        }
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs one reference position to a depth and reports nodes, time and nodes per second
+     *
+     * @return true if the node count matched the published value
+     */
+    public static boolean run(Position position, int depth, PrintStream out) {
+        ChessGame game = position.createGame();
+        long start = System.nanoTime();
+        long nodes = perft(game, depth);
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        long expected = position.expectedNodes(depth);
+        out.printf("%-10s depth %d: %,d nodes in %.3f s (%,d nodes/s)%s%n", position, depth, nodes,
+                elapsed / 1e9, nodes * 1_000_000_000L / elapsed,
+                nodes == expected ? "" : String.format(" MISMATCH, expected %,d", expected));
+        return nodes == expected;
+    }
+
+    private static void printDivide(Position position, int depth, PrintStream out) {
+        long total = 0;
+        for (Map.Entry<ChessMove, Long> entry : divide(position.createGame(), depth).entrySet()) {
+            out.println(Uci.encode(entry.getKey()) + ": " + entry.getValue());
+            total += entry.getValue();
+        }
+        out.println("Total: " + total);
+    }
+}
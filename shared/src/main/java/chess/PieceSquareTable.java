@@ -0,0 +1,51 @@
+package chess;
+
+/**
+ * Midgame and endgame values for every piece on every square, summed incrementally by a
+ * {@link ChessBoard} that has the table attached (see
+ * {@link ChessBoard#setPieceSquareTable}).
+ * <p>
+ * Tables are given from White's point of view, as the board is drawn: the first eight
+ * entries are the eighth rank from a to h, the last eight the first rank. Black's values
+ * are the same tables mirrored vertically and negated, so board sums read as White minus
+ * Black.
+ */
+public final class PieceSquareTable {
+
+    private final int[] midgame = new int[2 * ChessBoard.PIECE_KINDS * 64];
+    private final int[] endgame = new int[2 * ChessBoard.PIECE_KINDS * 64];
+
+    /**
+     * @param midgameValues piece values in the middlegame, in {@link ChessPiece.PieceType} order
+     * @param endgameValues piece values in the endgame
+     * @param midgameTables per piece type, 64 square bonuses in the middlegame
+     * @param endgameTables per piece type, 64 square bonuses in the endgame
+     */
+    public PieceSquareTable(int[] midgameValues, int[] endgameValues, int[][] midgameTables, int[][] endgameTables) {
+        for (int type = 0; type < ChessBoard.PIECE_KINDS; type++) {
+            for (int square = 0; square < 64; square++) {
+                int fromTop = (7 - (square >>> 3)) * 8 + (square & 7);
+                int mirrored = (square >>> 3) * 8 + (square & 7);
+                midgame[type * 64 + square] = midgameValues[type] + midgameTables[type][fromTop];
+                endgame[type * 64 + square] = endgameValues[type] + endgameTables[type][fromTop];
+                int black = (ChessBoard.PIECE_KINDS + type) * 64 + square;
+                midgame[black] = -(midgameValues[type] + midgameTables[type][mirrored]);
+                endgame[black] = -(endgameValues[type] + endgameTables[type][mirrored]);
+            }
+        }
+    }
+
+    /**
+     * @return midgame value of a piece index on a square, negative for Black
+     */
+    int midgame(int index, int square) {
+        return midgame[index * 64 + square];
+    }
+
+    /**
+     * @return endgame value of a piece index on a square, negative for Black
+     */
+    int endgame(int index, int square) {
+        return endgame[index * 64 + square];
+    }
+}
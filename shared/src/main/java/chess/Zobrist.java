@@ -0,0 +1,81 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random 64-bit keys for Zobrist hashing of positions.
+ * <p>
+ * A position key is the XOR of one key per piece on its square, the castling rights,
+ * the en passant file (only when a capture there is possible) and the side to move.
+ * Because XOR is its own inverse, {@link ChessBoard} and {@link ChessGame} keep their
+ * keys up to date by XOR-ing keys in and out as pieces and state change.
+ */
+public final class Zobrist {
+
+    private static final long[][] PIECE_SQUARE = new long[2 * ChessBoard.PIECE_KINDS][64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x2400C4E55L);
+        for (long[] squares : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                squares[square] = random.nextLong();
+            }
+        }
+        long[] rightKeys = new long[4];
+        for (int i = 0; i < rightKeys.length; i++) {
+            rightKeys[i] = random.nextLong();
+        }
+        for (int rights = 0; rights < CASTLING.length; rights++) {
+            for (int i = 0; i < rightKeys.length; i++) {
+                if ((rights & (1 << i)) != 0) {
+                    CASTLING[rights] ^= rightKeys[i];
+                }
+            }
+        }
+        for (int file = 0; file < EN_PASSANT_FILE.length; file++) {
+            EN_PASSANT_FILE[file] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @return key for a piece index (see {@link ChessBoard}) standing on a square
+     */
+    static long piece(int index, int square) {
+        return PIECE_SQUARE[index][square];
+    }
+
+    /**
+     * @return key for a piece standing on a square
+     */
+    public static long piece(ChessPiece piece, int square) {
+        return PIECE_SQUARE[ChessBoard.pieceIndex(piece.getTeamColor(), piece.getPieceType())][square];
+    }
+
+    /**
+     * @return key for a combination of castling right flags
+     */
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * @return key for an en passant target on the given file (0 = a-file)
+     */
+    public static long enPassantFile(int file) {
+        return EN_PASSANT_FILE[file];
+    }
+
+    /**
+     * @return key XOR-ed in when Black is to move
+     */
+    public static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+}
@@ -0,0 +1,13 @@
+package chess.book;
+
+import chess.ChessMove;
+
+/**
+ * A move an opening book suggests for a position
+ *
+ * @param move   the move, legal in the position it was looked up for
+ * @param weight relative preference; a move is chosen with probability weight / total
+ * @param learn  learning data stored with the entry, unused by this engine
+ */
+public record BookMove(ChessMove move, int weight, int learn) {
+}
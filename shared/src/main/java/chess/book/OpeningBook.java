@@ -0,0 +1,181 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Move;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+import java.util.random.RandomGenerator;
+
+/**
+ * Read-only opening book in the Polyglot file layout, memory-mapped so even very large
+ * books cost no heap and only the pages a lookup touches are read from disk.
+ * <p>
+ * Entries are sorted by position key, so a lookup is a binary search for the first
+ * entry of the position followed by a scan of its moves. Book moves are checked against
+ * the legal moves of the position, so an entry whose key collides with another
+ * position's is skipped rather than returned.
+ * <p>
+ * Positions are keyed with the Polyglot reference hash, {@link Polyglot#key}, unless
+ * another key function is given, so books from other Polyglot tools can be read directly.
+ * Books written by {@link OpeningBookWriter} use the same keys by default.
+ * <p>
+ * Lookups only read the mapping and may run on several threads at once.
+ */
+public final class OpeningBook implements AutoCloseable {
+
+    /**
+     * Entries per mapped segment, so books beyond the 2 GB limit of a single mapping work
+     */
+    private static final int SEGMENT_ENTRIES = 1 << 26;
+
+    private final FileChannel channel;
+    private final ByteBuffer[] segments;
+    private final long entries;
+    private final ToLongFunction<ChessGame> keys;
+
+    private OpeningBook(FileChannel channel, ToLongFunction<ChessGame> keys) throws IOException {
+        this.channel = channel;
+        this.keys = keys;
+        long size = channel.size();
+        if (size % Polyglot.ENTRY_BYTES != 0) {
+            throw new IOException("Book size is not a whole number of entries: " + size + " bytes");
+        }
+        this.entries = size / Polyglot.ENTRY_BYTES;
+        int count = (int) ((entries + SEGMENT_ENTRIES - 1) / SEGMENT_ENTRIES);
+        this.segments = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long start = (long) i * SEGMENT_ENTRIES * Polyglot.ENTRY_BYTES;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                    Math.min(size - start, (long) SEGMENT_ENTRIES * Polyglot.ENTRY_BYTES));
+        }
+    }
+
+    /**
+     * Maps a book keyed with the Polyglot reference hash
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        return open(path, Polyglot::key);
+    }
+
+    /**
+     * Maps a book
+     *
+     * @param keys the position hash the book was written with
+     */
+    public static OpeningBook open(Path path, ToLongFunction<ChessGame> keys) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new OpeningBook(channel, keys);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return number of entries in the book
+     */
+    public long size() {
+        return entries;
+    }
+
+    /**
+     * @return the book's legal moves for the game's current position, highest weight
+     * first, or an empty list if the position is not in the book
+     */
+    public List<BookMove> lookup(ChessGame game) {
+        long key = keys.applyAsLong(game);
+        List<BookMove> moves = new ArrayList<>();
+        for (long entry = firstEntry(key); entry < entries && key(entry) == key; entry++) {
+            ByteBuffer segment = segment(entry);
+            int offset = offset(entry);
+            int bookMove = Short.toUnsignedInt(segment.getShort(offset + 8));
+            int weight = Short.toUnsignedInt(segment.getShort(offset + 10));
+            int learn = segment.getInt(offset + 12);
+            int from = bookMove >>> 6 & 0x3F;
+            ChessPiece piece = game.getBoard().getPiece(ChessPosition.fromSquare(from));
+            boolean king = piece != null && piece.getPieceType() == ChessPiece.PieceType.KING;
+            int legal = game.findMove(Polyglot.decodeMove(bookMove, king));
+            if (legal != Move.NONE) {
+                moves.add(new BookMove(Move.toChessMove(legal), weight, learn));
+            }
+        }
+        moves.sort((a, b) -> Integer.compare(b.weight(), a.weight()));
+        return moves;
+    }
+
+    /**
+     * Chooses one of the book's moves for the current position at random, in proportion
+     * to their weights
+     *
+     * @return the move, or null if the position is not in the book
+     */
+    public ChessMove pick(ChessGame game, RandomGenerator random) {
+        List<BookMove> moves = lookup(game);
+        if (moves.isEmpty()) {
+            return null;
+        }
+        long total = 0;
+        for (BookMove move : moves) {
+            total += move.weight();
+        }
+        if (total == 0) {
+            return moves.get(0).move();
+        }
+        long choice = random.nextLong(total);
+        for (BookMove move : moves) {
+            choice -= move.weight();
+            if (choice < 0) {
+                return move.move();
+            }
+        }
+        return moves.get(moves.size() - 1).move();
+    }
+
+    /**
+     * Closes the file; the mapping itself is released once it is no longer reachable
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * @return index of the first entry whose key is not below {@code key}, comparing unsigned
+     */
+    private long firstEntry(long key) {
+        long low = 0;
+        long high = entries;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(key(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long key(long entry) {
+        return segment(entry).getLong(offset(entry));
+    }
+
+    private ByteBuffer segment(long entry) {
+        return segments[(int) (entry / SEGMENT_ENTRIES)];
+    }
+
+    private static int offset(long entry) {
+        return (int) (entry % SEGMENT_ENTRIES) * Polyglot.ENTRY_BYTES;
+    }
+}
@@ -0,0 +1,138 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+import chess.MoveList;
+import chess.pgn.PgnGame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Builds an {@link OpeningBook} file from games.
+ * <p>
+ * Each move of the opening phase is credited to the position it was played in: two
+ * points when the side that played it went on to win, one for a draw or an unknown
+ * result and none for a loss, as Polyglot's own book maker does. Moves that end with no
+ * points are left out. Weights are scaled down together if the largest would not fit
+ * the 16-bit field.
+ */
+public final class OpeningBookWriter {
+
+    private static final int MAX_WEIGHT = 0xFFFF;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ToLongFunction<ChessGame> keys;
+    private final Map<Long, Map<Integer, Long>> weights = new HashMap<>();
+    private final MoveList legal = new MoveList();
+
+    /**
+     * Creates a writer keyed with the Polyglot reference hash
+     */
+    public OpeningBookWriter() {
+        this(Polyglot::key);
+    }
+
+    /**
+     * @param keys position hash to key entries with; readers must use the same one
+     */
+    public OpeningBookWriter(ToLongFunction<ChessGame> keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Credits the first {@code maxPlies} moves of a game. A move that is not legal ends
+     * the game's contribution.
+     */
+    public void addGame(PgnGame pgn, int maxPlies) {
+        int whitePoints = points(pgn.getResult(), PgnGame.WHITE_WINS);
+        int blackPoints = points(pgn.getResult(), PgnGame.BLACK_WINS);
+        ChessGame game = pgn.startingPosition();
+        List<ChessMove> moves = pgn.getMoves();
+        for (int ply = 0; ply < Math.min(maxPlies, moves.size()); ply++) {
+            game.generateMoves(legal);
+            int move = legal.find(moves.get(ply));
+            if (move == Move.NONE) {
+                return;
+            }
+            add(game, move, game.getTeamTurn() == ChessGame.TeamColor.WHITE ? whitePoints : blackPoints);
+            game.makeMove(move);
+        }
+    }
+
+    /**
+     * Credits a move in the game's current position
+     *
+     * @param move   a legal packed move of the side to move
+     * @param weight points to add
+     */
+    public void add(ChessGame game, int move, int weight) {
+        weights.computeIfAbsent(keys.applyAsLong(game), key -> new HashMap<>())
+                .merge(Polyglot.encodeMove(move), (long) weight, Long::sum);
+    }
+
+    /**
+     * @return number of positions credited so far
+     */
+    public int positions() {
+        return weights.size();
+    }
+
+    /**
+     * Writes every credited move with a non-zero weight, sorted by key as the format requires
+     */
+    public void write(Path path) throws IOException {
+        long heaviest = 1;
+        for (Map<Integer, Long> moves : weights.values()) {
+            for (long weight : moves.values()) {
+                heaviest = Math.max(heaviest, weight);
+            }
+        }
+        List<Long> sortedKeys = new ArrayList<>(weights.keySet());
+        sortedKeys.sort(Long::compareUnsigned);
+
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (long key : sortedKeys) {
+                List<Map.Entry<Integer, Long>> moves = new ArrayList<>(weights.get(key).entrySet());
+                moves.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+                for (Map.Entry<Integer, Long> move : moves) {
+                    int weight = (int) (heaviest > MAX_WEIGHT ? move.getValue() * MAX_WEIGHT / heaviest : move.getValue());
+                    if (weight == 0) {
+                        continue;
+                    }
+                    if (buffer.remaining() < Polyglot.ENTRY_BYTES) {
+                        drain(buffer, channel);
+                    }
+                    buffer.putLong(key).putShort((short) (int) move.getKey()).putShort((short) weight).putInt(0);
+                }
+            }
+            drain(buffer, channel);
+        }
+    }
+
+    private static int points(String result, String win) {
+        if (result.equals(win)) {
+            return 2;
+        }
+        return result.equals(PgnGame.WHITE_WINS) || result.equals(PgnGame.BLACK_WINS) ? 0 : 1;
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,358 @@
+package chess.engine;
+
+import chess.Attacks;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.PieceSquareTable;
+
+/**
+ * Hand-tuned evaluation tapered between middlegame and endgame weights by the game phase.
+ * <p>
+ * Material and piece-square values come from sums the board keeps up to date on every
+ * move once the weights' {@link PieceSquareTable} is attached, so they cost nothing per
+ * node. Mobility and king safety are computed from the bitboards. Pawn structure is
+ * looked up in a {@link PawnHashTable} by the board's pawn key first and only computed
+ * when the structure is not cached.
+ * <p>
+ * Apart from the lock-free pawn table the evaluator holds no mutable state and may be
+ * shared between searches.
+ */
+public final class ClassicalEvaluator implements Evaluator {
+
+    /**
+     * Evaluation weights in centipawns
+     *
+     * @param pieceSquareTable   material and piece-square values
+     * @param mobility           bonus per square a piece attacks that is neither occupied by a
+     *                           friendly piece nor attacked by an enemy pawn, in
+     *                           {@link ChessPiece.PieceType} order
+     * @param kingAttack         middlegame bonus per attack weight on the enemy king's zone,
+     *                           once at least two pieces take part
+     * @param pawnShield         middlegame bonus per friendly pawn in front of the king
+     * @param doubledPawn        penalty per extra pawn on a file
+     * @param isolatedPawn       penalty per pawn with no friendly pawns on adjacent files
+     * @param backwardPawn       penalty per pawn behind its neighbours whose advance square
+     *                           is attacked by an enemy pawn
+     * @param passedPawnMidgame  middlegame bonus for a passed pawn by relative rank, 0 to 7
+     * @param passedPawnEndgame  endgame bonus for a passed pawn by relative rank, 0 to 7
+     */
+    public record Weights(PieceSquareTable pieceSquareTable, int[] mobility, int kingAttack, int pawnShield,
+                          int doubledPawn, int isolatedPawn, int backwardPawn, int[] passedPawnMidgame, int[] passedPawnEndgame) {
+    }
+
+    private static final int[] MIDGAME_VALUES = {0, 1025, 365, 337, 477, 82};
+    private static final int[] ENDGAME_VALUES = {0, 936, 297, 281, 512, 94};
+
+    private static final int[] KING_TABLE = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20};
+    private static final int[] KING_ENDGAME_TABLE = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50};
+    private static final int[] QUEEN_TABLE = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20};
+    private static final int[] BISHOP_TABLE = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20};
+    private static final int[] KNIGHT_TABLE = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50};
+    private static final int[] ROOK_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0};
+    private static final int[] PAWN_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0};
+    private static final int[] PAWN_ENDGAME_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            80, 80, 80, 80, 80, 80, 80, 80,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            30, 30, 30, 30, 30, 30, 30, 30,
+            15, 15, 15, 15, 15, 15, 15, 15,
+            5, 5, 5, 5, 5, 5, 5, 5,
+            0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0};
+
+    /**
+     * The weights used by {@link #ClassicalEvaluator()}
+     */
+    public static final Weights DEFAULT_WEIGHTS = new Weights(
+            new PieceSquareTable(MIDGAME_VALUES, ENDGAME_VALUES,
+                    new int[][]{KING_TABLE, QUEEN_TABLE, BISHOP_TABLE, KNIGHT_TABLE, ROOK_TABLE, PAWN_TABLE},
+                    new int[][]{KING_ENDGAME_TABLE, QUEEN_TABLE, BISHOP_TABLE, KNIGHT_TABLE, ROOK_TABLE,
+                            PAWN_ENDGAME_TABLE}),
+            new int[]{0, 1, 4, 4, 2, 0}, 6, 10, 12, 15, 8,
+            new int[]{0, 0, 5, 10, 20, 35, 60, 0},
+            new int[]{0, 10, 15, 25, 45, 75, 120, 0});
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    private static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
+
+    /**
+     * How much each piece type attacking the enemy king's zone counts towards king danger
+     */
+    private static final int[] KING_ATTACK_WEIGHTS = {0, 4, 2, 2, 3, 0};
+
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long FILE_H = FILE_A << 7;
+    private static final long[] ADJACENT_FILES = new long[8];
+
+    /**
+     * Squares in front of a pawn on its own and adjacent files, per color and square;
+     * a pawn is passed when no enemy pawn stands there
+     */
+    private static final long[][] PASSED_MASKS = new long[2][64];
+
+    /**
+     * The one or two ranks directly in front of the king on its own and adjacent files
+     */
+    private static final long[][] SHIELD_MASKS = new long[2][64];
+
+    /**
+     * Squares on adjacent files level with or behind a pawn, per color and square; a pawn
+     * with no friendly pawn there cannot be defended by advancing its neighbours
+     */
+    private static final long[][] SUPPORT_MASKS = new long[2][64];
+
+    /**
+     * Structures kept by the pawn table of {@link #ClassicalEvaluator(Weights)}
+     */
+    private static final int DEFAULT_PAWN_ENTRIES = 1 << 14;
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            ADJACENT_FILES[file] = (file > 0 ? FILE_A << (file - 1) : 0) | (file < 7 ? FILE_A << (file + 1) : 0);
+        }
+        for (int square = 0; square < 64; square++) {
+            int file = square & 7;
+            int rank = square >>> 3;
+            long files = ADJACENT_FILES[file] | FILE_A << file;
+            for (int r = 0; r < 8; r++) {
+                long rankMask = 0xFFL << (r * 8);
+                if (r <= rank) {
+                    SUPPORT_MASKS[0][square] |= ADJACENT_FILES[file] & rankMask;
+                }
+                if (r >= rank) {
+                    SUPPORT_MASKS[1][square] |= ADJACENT_FILES[file] & rankMask;
+                }
+                if (r > rank) {
+                    PASSED_MASKS[0][square] |= files & rankMask;
+                    if (r <= rank + 2) {
+                        SHIELD_MASKS[0][square] |= files & rankMask;
+                    }
+                } else if (r < rank) {
+                    PASSED_MASKS[1][square] |= files & rankMask;
+                    if (r >= rank - 2) {
+                        SHIELD_MASKS[1][square] |= files & rankMask;
+                    }
+                }
+            }
+        }
+    }
+
+    private final Weights weights;
+    private final PawnHashTable pawnTable;
+
+    public ClassicalEvaluator() {
+        this(DEFAULT_WEIGHTS);
+    }
+
+    public ClassicalEvaluator(Weights weights) {
+        this(weights, new PawnHashTable(DEFAULT_PAWN_ENTRIES));
+    }
+
+    /**
+     * @param pawnTable cache of pawn structure scores; it must only ever be used with
+     *                  these weights
+     */
+    public ClassicalEvaluator(Weights weights, PawnHashTable pawnTable) {
+        this.weights = weights;
+        this.pawnTable = pawnTable;
+    }
+
+    public Weights getWeights() {
+        return weights;
+    }
+
+    public PawnHashTable getPawnHashTable() {
+        return pawnTable;
+    }
+
+    @Override
+    public void attach(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        if (board.getPieceSquareTable() != weights.pieceSquareTable()) {
+            board.setPieceSquareTable(weights.pieceSquareTable());
+        }
+    }
+
+    @Override
+    public int evaluate(ChessGame game) {
+        attach(game);
+        ChessBoard board = game.getBoard();
+        int score = pack(board.getMidgameScore(), board.getEndgameScore()) + pawnStructure(board)
+                + evaluateSide(board, ChessGame.TeamColor.WHITE) - evaluateSide(board, ChessGame.TeamColor.BLACK);
+        int phase = Math.min(board.getPhase(), ChessBoard.MAX_PHASE);
+        int tapered = (midgame(score) * phase + endgame(score) * (ChessBoard.MAX_PHASE - phase)) / ChessBoard.MAX_PHASE;
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE ? tapered : -tapered;
+    }
+
+    /**
+     * @return mobility and king safety terms for one side, packed
+     */
+    private int evaluateSide(ChessBoard board, ChessGame.TeamColor color) {
+        ChessGame.TeamColor enemy = color == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long occupied = board.getOccupancy();
+        long own = board.getTeamOccupancy(color);
+        long pawns = board.getPieces(color, ChessPiece.PieceType.PAWN);
+        long enemyPawns = board.getPieces(enemy, ChessPiece.PieceType.PAWN);
+        long mobilityArea = ~own & ~pawnAttacks(enemy, enemyPawns);
+        int enemyKing = board.getKingSquare(enemy);
+        long kingZone = enemyKing < 0 ? 0 : Attacks.kingAttacks(enemyKing) | 1L << enemyKing;
+
+        int mobility = 0;
+        int attackers = 0;
+        int attackWeight = 0;
+        for (int type = 1; type < PAWN; type++) {
+            for (long bits = board.getPieces(color, TYPES[type]); bits != 0; bits &= bits - 1) {
+                long attacks = Attacks.attacks(TYPES[type], color, Long.numberOfTrailingZeros(bits), occupied);
+                mobility += weights.mobility()[type] * Long.bitCount(attacks & mobilityArea);
+                if ((attacks & kingZone) != 0) {
+                    attackers++;
+                    attackWeight += KING_ATTACK_WEIGHTS[type] * Long.bitCount(attacks & kingZone);
+                }
+            }
+        }
+        int midgame = mobility + (attackers >= 2 ? weights.kingAttack() * attackWeight : 0);
+        int endgame = mobility;
+
+        int side = color.ordinal();
+        int king = board.getKingSquare(color);
+        if (king >= 0) {
+            midgame += weights.pawnShield() * Long.bitCount(pawns & SHIELD_MASKS[side][king]);
+        }
+        return pack(midgame, endgame);
+    }
+
+    /**
+     * @return pawn structure score, White minus Black and packed, from the pawn table or
+     * computed and stored there
+     */
+    private int pawnStructure(ChessBoard board) {
+        long key = board.getPawnKey();
+        long cached = pawnTable.probe(key);
+        if (cached != PawnHashTable.MISS) {
+            return PawnHashTable.score(cached);
+        }
+        long whitePawns = board.getPieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        long blackPawns = board.getPieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        int score = evaluatePawns(ChessGame.TeamColor.WHITE, whitePawns, blackPawns)
+                - evaluatePawns(ChessGame.TeamColor.BLACK, blackPawns, whitePawns);
+        pawnTable.store(key, score);
+        return score;
+    }
+
+    /**
+     * @return doubled, isolated, backward and passed pawn terms for one side, packed
+     */
+    private int evaluatePawns(ChessGame.TeamColor color, long pawns, long enemyPawns) {
+        int side = color.ordinal();
+        ChessGame.TeamColor enemy = color == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long enemyAttacks = pawnAttacks(enemy, enemyPawns);
+        int midgame = 0;
+        int endgame = 0;
+        for (int file = 0; file < 8; file++) {
+            int count = Long.bitCount(pawns & FILE_A << file);
+            if (count > 1) {
+                midgame -= weights.doubledPawn() * (count - 1);
+                endgame -= weights.doubledPawn() * (count - 1);
+            }
+        }
+        for (long bits = pawns; bits != 0; bits &= bits - 1) {
+            int square = Long.numberOfTrailingZeros(bits);
+            if ((pawns & ADJACENT_FILES[square & 7]) == 0) {
+                midgame -= weights.isolatedPawn();
+                endgame -= weights.isolatedPawn();
+            } else if ((pawns & SUPPORT_MASKS[side][square]) == 0) {
+                int stop = color == ChessGame.TeamColor.WHITE ? square + 8 : square - 8;
+                if ((enemyAttacks & 1L << stop) != 0) {
+                    midgame -= weights.backwardPawn();
+                    endgame -= weights.backwardPawn();
+                }
+            }
+            if ((enemyPawns & PASSED_MASKS[side][square]) == 0) {
+                int rank = color == ChessGame.TeamColor.WHITE ? square >>> 3 : 7 - (square >>> 3);
+                midgame += weights.passedPawnMidgame()[rank];
+                endgame += weights.passedPawnEndgame()[rank];
+            }
+        }
+        return pack(midgame, endgame);
+    }
+
+    private static long pawnAttacks(ChessGame.TeamColor color, long pawns) {
+        return color == ChessGame.TeamColor.WHITE
+                ? (pawns << 7 & ~FILE_H) | (pawns << 9 & ~FILE_A)
+                : (pawns >>> 9 & ~FILE_H) | (pawns >>> 7 & ~FILE_A);
+    }
+
+    /**
+     * Packs a middlegame and an endgame score into one int so both can be summed at once
+     */
+    private static int pack(int midgame, int endgame) {
+        return (midgame << 16) + endgame;
+    }
+
+    private static int midgame(int packed) {
+        return (packed + 0x8000) >> 16;
+    }
+
+    private static int endgame(int packed) {
+        return (short) packed;
+    }
+}
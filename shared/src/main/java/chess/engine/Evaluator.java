@@ -0,0 +1,26 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+/**
+ * Static evaluation used at the leaves of a {@link Search}.
+ * <p>
+ * Implementations may keep incremental state on the game's board, such as a
+ * {@link chess.PieceSquareTable}; {@link #attach} is called once per search before any
+ * position is evaluated so that state can be set up without a per-node cost.
+ */
+public interface Evaluator {
+
+    /**
+     * Prepares a game for evaluation; called at the start of every search. The search puts
+     * back the board's piece-square table when it finishes
+     */
+    default void attach(ChessGame game) {
+    }
+
+    /**
+     * @return score in centipawns from the side to move's point of view, well inside
+     * &plusmn;{@link Search#MATE}
+     */
+    int evaluate(ChessGame game);
+}
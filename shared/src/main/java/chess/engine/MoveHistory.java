@@ -0,0 +1,105 @@
+package chess.engine;
+
+import chess.Move;
+import chess.MoveList;
+
+import java.util.Arrays;
+
+/**
+ * What a search has learned about quiet moves, used to order them in a {@link MovePicker}.
+ * <p>
+ * Killer moves are the last two quiet moves per ply that caused a beta cutoff; sibling
+ * positions often fail to the same move. The history table scores each quiet move by
+ * side, start and end square, raised when the move cuts off and lowered for the quiet
+ * moves tried before it. The countermove table remembers the quiet move that refuted
+ * each opponent move, keyed by that move's start and end square.
+ */
+final class MoveHistory {
+
+    /**
+     * History scores stay within &plusmn;this value
+     */
+    static final int HISTORY_MAX = 1 << 14;
+
+    private final int[][] killers = new int[Search.MAX_PLY][2];
+    private final int[][] history = new int[2][64 * 64];
+    private final int[] counterMoves = new int[64 * 64];
+
+    int killer(int ply, int slot) {
+        return killers[ply][slot];
+    }
+
+    /**
+     * @return the quiet move that last refuted {@code previousMove}, or {@link Move#NONE}
+     */
+    int counterMove(int previousMove) {
+        return previousMove == Move.NONE ? Move.NONE : counterMoves[butterfly(previousMove)];
+    }
+
+    int history(int side, int move) {
+        return history[side][butterfly(move)];
+    }
+
+    /**
+     * Records a quiet move that caused a beta cutoff
+     *
+     * @param side         side that played the move
+     * @param previousMove the opponent's move before it, or {@link Move#NONE}
+     * @param tried        quiet moves searched before it at this node, which failed low
+     */
+    void cutoff(int ply, int depth, int side, int previousMove, int move, MoveList tried) {
+        if (!Move.sameMove(killers[ply][0], move)) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        if (previousMove != Move.NONE) {
+            counterMoves[butterfly(previousMove)] = move;
+        }
+        int bonus = Math.min(depth * depth, HISTORY_MAX / 4);
+        update(side, move, bonus);
+        for (int i = 0; i < tried.size(); i++) {
+            if (!Move.sameMove(tried.get(i), move)) {
+                update(side, tried.get(i), -bonus);
+            }
+        }
+    }
+
+    /**
+     * Prepares for a new search: killers from the previous position no longer apply and
+     * history is halved so recent results weigh more
+     */
+    void newSearch() {
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, Move.NONE);
+        }
+        for (int[] sideHistory : history) {
+            for (int i = 0; i < sideHistory.length; i++) {
+                sideHistory[i] /= 2;
+            }
+        }
+    }
+
+    void clear() {
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, Move.NONE);
+        }
+        for (int[] sideHistory : history) {
+            Arrays.fill(sideHistory, 0);
+        }
+        Arrays.fill(counterMoves, Move.NONE);
+    }
+
+    /**
+     * Moves the score towards the bonus's sign, more slowly the closer it already is to
+     * {@link #HISTORY_MAX}, so it never leaves the range
+     */
+    private void update(int side, int move, int bonus) {
+        int[] table = history[side];
+        int index = butterfly(move);
+        table[index] += bonus - table[index] * Math.abs(bonus) / HISTORY_MAX;
+    }
+
+    private static int butterfly(int move) {
+        return Move.from(move) << 6 | Move.to(move);
+    }
+}
@@ -0,0 +1,260 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Move;
+import chess.MoveList;
+
+/**
+ * Hands out the moves of one node best-first, generating them in stages so a node that
+ * cuts off early never generates or sorts the moves it did not need.
+ * <p>
+ * The stages are: the hash move, checked for legality but not generated; captures and
+ * promotions, most valuable victim first and least valuable attacker breaking ties; the
+ * two killer moves of the ply; the remaining quiet moves by history score, with the
+ * countermove of the opponent's last move ahead of them; and last the captures that
+ * {@link ChessGame#see static exchange evaluation} says lose material. Moves handed out
+ * by an earlier stage are skipped by later ones. In quiescence mode only captures and
+ * promotions that do not lose material are produced, unless the side to move is in check.
+ * <p>
+ * Each search ply owns one picker, so nothing is allocated once the lists have grown.
+ */
+final class MovePicker {
+
+    /**
+     * Material values for ordering captures, in {@link ChessPiece.PieceType} order
+     */
+    private static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+    private static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
+    private static final int COUNTER_MOVE_BONUS = MoveHistory.HISTORY_MAX * 2;
+
+    private static final int HASH = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int CAPTURES = 2;
+    private static final int FIRST_KILLER = 3;
+    private static final int SECOND_KILLER = 4;
+    private static final int GENERATE_QUIETS = 5;
+    private static final int QUIETS = 6;
+    private static final int BAD_CAPTURES = 7;
+    private static final int DONE = 8;
+
+    private final MoveList moves = new MoveList();
+    private final MoveList badCaptures = new MoveList();
+    private final MoveList triedQuiets = new MoveList();
+    private int[] scores = new int[256];
+
+    private ChessGame game;
+    private MoveHistory history;
+    private int stage;
+    private int index;
+    private int hashMove;
+    private int firstKiller;
+    private int secondKiller;
+    private int counterMove;
+    private boolean quiets;
+
+    /**
+     * Starts a node of the main search
+     *
+     * @param hashMove     move to try first, or {@link Move#NONE}; it need not be legal here
+     * @param previousMove the opponent's move leading to this node, or {@link Move#NONE}
+     */
+    void init(ChessGame game, MoveHistory history, int ply, int hashMove, int previousMove) {
+        start(game, history, true);
+        this.hashMove = game.findMove(hashMove);
+        this.firstKiller = history.killer(ply, 0);
+        this.secondKiller = history.killer(ply, 1);
+        this.counterMove = history.counterMove(previousMove);
+    }
+
+    /**
+     * Starts a quiescence node: captures and promotions only, or every move when in check
+     */
+    void initQuiescence(ChessGame game, MoveHistory history, boolean inCheck) {
+        start(game, history, inCheck);
+    }
+
+    /**
+     * @return the next move to search, or {@link Move#NONE} when all have been handed out
+     */
+    int next() {
+        switch (stage) {
+            case HASH:
+                stage = GENERATE_CAPTURES;
+                if (hashMove != Move.NONE) {
+                    return hashMove;
+                }
+                // fall through
+            case GENERATE_CAPTURES:
+                game.generateCaptures(moves);
+                scoreCaptures();
+                index = 0;
+                stage = CAPTURES;
+                // fall through
+            case CAPTURES:
+                while (index < moves.size()) {
+                    int move = pickBest(index++);
+                    if (Move.sameMove(move, hashMove)) {
+                        continue;
+                    }
+                    if (isLosingCapture(move)) {
+                        badCaptures.add(move);
+                        continue;
+                    }
+                    return move;
+                }
+                if (!quiets) {
+                    stage = DONE;
+                    return Move.NONE;
+                }
+                stage = FIRST_KILLER;
+                // fall through
+            case FIRST_KILLER:
+                stage = SECOND_KILLER;
+                int first = legalQuiet(firstKiller);
+                if (first != Move.NONE) {
+                    return first;
+                }
+                // fall through
+            case SECOND_KILLER:
+                stage = GENERATE_QUIETS;
+                int second = Move.sameMove(secondKiller, firstKiller) ? Move.NONE : legalQuiet(secondKiller);
+                if (second != Move.NONE) {
+                    return second;
+                }
+                // fall through
+            case GENERATE_QUIETS:
+                game.generateQuiets(moves);
+                scoreQuiets();
+                index = 0;
+                stage = QUIETS;
+                // fall through
+            case QUIETS:
+                while (index < moves.size()) {
+                    int move = pickBest(index++);
+                    if (!Move.sameMove(move, hashMove) && !Move.sameMove(move, firstKiller)
+                            && !Move.sameMove(move, secondKiller)) {
+                        return move;
+                    }
+                }
+                index = 0;
+                stage = BAD_CAPTURES;
+                // fall through
+            case BAD_CAPTURES:
+                if (index < badCaptures.size()) {
+                    return badCaptures.get(index++);
+                }
+                stage = DONE;
+                // fall through
+            default:
+                return Move.NONE;
+        }
+    }
+
+    /**
+     * Quiet moves the caller has searched at this node, kept for the history update on a
+     * cutoff; the caller adds to it
+     */
+    MoveList triedQuiets() {
+        return triedQuiets;
+    }
+
+    private void start(ChessGame game, MoveHistory history, boolean quiets) {
+        this.game = game;
+        this.history = history;
+        this.quiets = quiets;
+        this.stage = HASH;
+        this.hashMove = Move.NONE;
+        this.firstKiller = Move.NONE;
+        this.secondKiller = Move.NONE;
+        this.counterMove = Move.NONE;
+        moves.clear();
+        badCaptures.clear();
+        triedQuiets.clear();
+    }
+
+    /**
+     * @return the killer as a legal quiet move here, or {@link Move#NONE} if it is not one
+     * or the hash move already covered it
+     */
+    private int legalQuiet(int killer) {
+        if (killer == Move.NONE || Move.sameMove(killer, hashMove)) {
+            return Move.NONE;
+        }
+        int legal = game.findMove(killer);
+        return legal == Move.NONE || Move.isCapture(legal) || Move.isPromotion(legal) ? Move.NONE : legal;
+    }
+
+    /**
+     * @return true if a capture gives up more than it takes once the exchange on the
+     * target square is played out; captures of a piece worth at least the capturer are
+     * never losing and skip the exchange evaluation
+     */
+    private boolean isLosingCapture(int move) {
+        if (Move.isPromotion(move) || Move.isEnPassant(move) || !Move.isCapture(move)) {
+            return false;
+        }
+        ChessBoard board = game.getBoard();
+        if (PIECE_VALUES[typeAt(board, Move.to(move))] >= PIECE_VALUES[typeAt(board, Move.from(move))]) {
+            return false;
+        }
+        return game.see(move) < 0;
+    }
+
+    private void scoreCaptures() {
+        ensureCapacity();
+        ChessBoard board = game.getBoard();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int score = 0;
+            if (Move.isCapture(move)) {
+                int victim = Move.isEnPassant(move) ? PIECE_VALUES[PAWN] : PIECE_VALUES[typeAt(board, Move.to(move))];
+                score = victim * 8 - PIECE_VALUES[typeAt(board, Move.from(move))] / 100;
+            }
+            if (Move.isPromotion(move)) {
+                score += PIECE_VALUES[Move.promotion(move).ordinal()];
+            }
+            scores[i] = score;
+        }
+    }
+
+    private void scoreQuiets() {
+        ensureCapacity();
+        int side = game.getTeamTurn().ordinal();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            scores[i] = history.history(side, move) + (Move.sameMove(move, counterMove) ? COUNTER_MOVE_BONUS : 0);
+        }
+    }
+
+    private void ensureCapacity() {
+        if (scores.length < moves.size()) {
+            scores = new int[moves.size()];
+        }
+    }
+
+    /**
+     * Selection sort step: swaps the best remaining move into slot {@code from}
+     */
+    private int pickBest(int from) {
+        int best = from;
+        for (int i = from + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != from) {
+            moves.swap(from, best);
+            int score = scores[from];
+            scores[from] = scores[best];
+            scores[best] = score;
+        }
+        return moves.get(from);
+    }
+
+    private static int typeAt(ChessBoard board, int square) {
+        return board.getPiece(ChessPosition.fromSquare(square)).getPieceType().ordinal();
+    }
+}
@@ -0,0 +1,145 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.tablebase.Tablebase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Lazy SMP: several {@link Search}es of the same position run at once, one per thread,
+ * sharing a {@link TranspositionTable}. The threads do not coordinate beyond the table;
+ * helpers stagger which depths they search, and the entries they leave behind let the
+ * main search cut off and order moves sooner. The main search runs on the calling
+ * thread and its result is returned; helpers are stopped as soon as it finishes.
+ * <p>
+ * Each helper searches its own copy of the game, move history included so that it sees
+ * repetitions of positions played before the root, and the caller's game is only touched
+ * by the main search. Node limits apply to the main search alone.
+ */
+public final class ParallelSearch implements AutoCloseable {
+
+    private final Search main;
+    private final List<Search> helpers = new ArrayList<>();
+    private final ExecutorService executor;
+    private final TranspositionTable table;
+
+    /**
+     * Searches with a {@link ClassicalEvaluator} on every thread
+     *
+     * @param threads number of searching threads, including the calling thread
+     * @param table   table shared by all threads
+     */
+    public ParallelSearch(int threads, TranspositionTable table) {
+        this(threads, table, ClassicalEvaluator::new);
+    }
+
+    /**
+     * @param threads    number of searching threads, including the calling thread
+     * @param table      table shared by all threads
+     * @param evaluators called once per thread, since an evaluator keeps per-thread state such
+     *                   as its pawn hash table and the board it is attached to
+     */
+    public ParallelSearch(int threads, TranspositionTable table, Supplier<Evaluator> evaluators) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one search thread is required: " + threads);
+        }
+        this.table = table;
+        this.main = new Search(table, evaluators.get());
+        for (int i = 1; i < threads; i++) {
+            Search helper = new Search(table, evaluators.get());
+            helper.setHelperIndex(i);
+            helpers.add(helper);
+        }
+        this.executor = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param tablebase endgame tables every thread scores covered positions with, or null for none
+     */
+    public void setTablebase(Tablebase tablebase) {
+        main.setTablebase(tablebase);
+        helpers.forEach(helper -> helper.setTablebase(tablebase));
+    }
+
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        return search(game, limits, result -> { });
+    }
+
+    /**
+     * Searches with every thread until the main search reaches a limit or {@link #stop()}
+     * is called
+     *
+     * @param onIteration receives each completed iteration of the main search
+     * @return the main search's result, with the node count of all threads
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits, Consumer<SearchResult> onIteration) {
+        table.newSearch();
+        List<Future<?>> running = new ArrayList<>(helpers.size());
+        SearchLimits helperLimits = new SearchLimits(0, 0, limits.timeMillis());
+        for (Search helper : helpers) {
+            ChessGame copy = new ChessGame(game);
+            helper.resetStop();
+            running.add(executor.submit(() -> helper.run(copy, helperLimits, result -> { })));
+        }
+
+        SearchResult result;
+        try {
+            main.resetStop();
+            result = main.run(game, limits, onIteration);
+        } finally {
+            helpers.forEach(Search::stop);
+            for (Future<?> future : running) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Search helper failed", e.getCause());
+                }
+            }
+        }
+        long nodes = main.nodes();
+        for (Search helper : helpers) {
+            nodes += helper.nodes();
+        }
+        return new SearchResult(result.bestMove(), result.score(), result.depth(), nodes, result.timeMillis(),
+                result.principalVariation());
+    }
+
+    /**
+     * Asks a running search to return as soon as possible
+     */
+    public void stop() {
+        main.stop();
+        helpers.forEach(Search::stop);
+    }
+
+    public int getThreads() {
+        return helpers.size() + 1;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Shuts down the helper threads
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size, lossy cache of pawn structure scores keyed on
+ * {@link chess.ChessBoard#getPawnKey()}.
+ * <p>
+ * Pawn structure changes only on pawn moves and captures of pawns, so most positions
+ * met in a search share their pawn key with one evaluated shortly before. Each slot is
+ * one entry of two longs, the key XOR-ed with the data and the data itself, as in
+ * {@link TranspositionTable}: a newer structure simply overwrites the slot, and a slot
+ * torn by a concurrent write reads as a miss, so the table may be shared between threads
+ * without locks. The hit counters are not synchronized and only approximate under
+ * concurrent use.
+ */
+public final class PawnHashTable {
+
+    /**
+     * Value returned by {@link #probe} on a miss; stored data always has bit 32 set
+     */
+    public static final long MISS = 0L;
+
+    private static final long VALID = 1L << 32;
+
+    private final long[] table;
+    private final int slotMask;
+    private long probes;
+    private long hits;
+
+    /**
+     * @param entries number of structures to keep; rounded down to a power of two
+     */
+    public PawnHashTable(int entries) {
+        if (entries < 1 || entries > 1 << 26) {
+            throw new IllegalArgumentException("Pawn table size must be between 1 and 2^26 entries: " + entries);
+        }
+        int slots = Integer.highestOneBit(entries);
+        this.table = new long[slots * 2];
+        this.slotMask = slots - 1;
+    }
+
+    /**
+     * @return the stored data for a pawn structure, or {@link #MISS}; unpack it with {@link #score}
+     */
+    public long probe(long pawnKey) {
+        probes++;
+        int slot = slot(pawnKey);
+        long data = table[slot + 1];
+        if ((table[slot] ^ data) == pawnKey && data != MISS) {
+            hits++;
+            return data;
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores a score for a pawn structure, replacing whatever the slot held
+     */
+    public void store(long pawnKey, int score) {
+        int slot = slot(pawnKey);
+        long data = VALID | (score & 0xFFFFFFFFL);
+        table[slot + 1] = data;
+        table[slot] = pawnKey ^ data;
+    }
+
+    /**
+     * @return the score held in data returned by {@link #probe}
+     */
+    public static int score(long data) {
+        return (int) data;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+        probes = 0;
+        hits = 0;
+    }
+
+    public int capacity() {
+        return table.length / 2;
+    }
+
+    public long probes() {
+        return probes;
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    /**
+     * @return fraction of probes that found their structure, or 0 before the first probe
+     */
+    public double hitRate() {
+        return probes == 0 ? 0 : (double) hits / probes;
+    }
+
+    private int slot(long pawnKey) {
+        return ((int) (pawnKey ^ (pawnKey >>> 32)) & slotMask) << 1;
+    }
+}
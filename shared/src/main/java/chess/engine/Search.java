@@ -0,0 +1,492 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+import chess.MoveList;
+import chess.PieceSquareTable;
+import chess.tablebase.Tablebase;
+import chess.tablebase.TablebaseResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Negamax alpha-beta search with iterative deepening over a {@link ChessGame}.
+ * <p>
+ * Each iteration searches one ply deeper than the last, trying the previous principal
+ * variation first, and extends by one ply when the side to move is in check. Moves are
+ * ordered by a staged {@link MovePicker} fed from the search's {@link MoveHistory}.
+ * Leaves are resolved with a quiescence search over captures and promotions, leaving
+ * out captures that lose material by static exchange evaluation, so the static
+ * evaluation, supplied by an {@link Evaluator}, is only taken in quiet positions. Moves
+ * are made and taken back on the game itself, which is back in its original position
+ * when the search returns.
+ * <p>
+ * Results are kept in a {@link TranspositionTable}, which cuts off positions already
+ * searched deeply enough and supplies the move to try first everywhere else. With a
+ * {@link Tablebase} attached, positions it covers are scored exactly instead of searched.
+ * <p>
+ * A {@code Search} keeps its move lists and principal variation tables between calls
+ * and is not thread-safe; {@link #stop()} may be called from any thread.
+ */
+public final class Search {
+
+    public static final int MATE = 32_000;
+
+    /**
+     * Score of a tablebase win, less the plies to mate; it stays below the mate scores
+     * the search finds itself, which are limited to its horizon
+     */
+    public static final int TABLEBASE_WIN = 31_000;
+    static final int INFINITY = MATE + 1;
+    static final int MAX_PLY = 128;
+
+    /**
+     * Smallest magnitude of a mate or tablebase score; the transposition table stores such
+     * scores relative to the node
+     */
+    private static final int DISTANCE_SCORE = TABLEBASE_WIN - MAX_PLY - Tablebase.MAX_DISTANCE;
+
+    /**
+     * How many nodes pass between checks of the clock and the stop flag
+     */
+    private static final int CHECK_INTERVAL = 1024;
+
+    /**
+     * Lazy SMP depth staggering for helper threads: helper {@code i} skips iterations in
+     * blocks of {@code SKIP_SIZE[i]} depths, offset by {@code SKIP_PHASE[i]}, so helpers
+     * spread over neighbouring depths instead of all repeating the main thread's work
+     */
+    private static final int[] SKIP_SIZE = {1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+    private static final int[] SKIP_PHASE = {0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
+
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY];
+    private final int[] playedMoves = new int[MAX_PLY];
+    private final MoveHistory history = new MoveHistory();
+    private final int[][] pv = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    private final int[] previousPv = new int[MAX_PLY];
+    private final boolean[] followsPv = new boolean[MAX_PLY];
+    private final long[] keys = new long[MAX_PLY + 1];
+    private final MoveList rootMoves = new MoveList();
+    private final TranspositionTable table;
+    private final Evaluator evaluator;
+    private volatile boolean stopped;
+    private Tablebase tablebase;
+
+    private ChessGame game;
+    private int helperIndex;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean aborted;
+
+    /**
+     * Whether a root move has been searched to completion; until then the node and time
+     * limits are not enforced, so there is always a searched move to play
+     */
+    private boolean rootScored;
+    private int rootScore;
+
+    /**
+     * Creates a search with its own 16 MB transposition table
+     */
+    public Search() {
+        this(new TranspositionTable(16));
+    }
+
+    /**
+     * @param table transposition table to read and fill; it may be shared with other searches
+     */
+    public Search(TranspositionTable table) {
+        this(table, new ClassicalEvaluator());
+    }
+
+    /**
+     * @param table     transposition table to read and fill; it may be shared with other searches
+     * @param evaluator static evaluation for quiet positions
+     */
+    public Search(TranspositionTable table, Evaluator evaluator) {
+        this.table = table;
+        this.evaluator = evaluator;
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            pickers[ply] = new MovePicker();
+        }
+    }
+
+    /**
+     * @param tablebase endgame tables to score covered positions with, or null for none
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Searches the game's current position until a limit is reached
+     *
+     * @return the result of the deepest completed iteration, or a depth 0 result if the
+     * search was stopped before completing one
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        return search(game, limits, result -> { });
+    }
+
+    /**
+     * Searches the game's current position until a limit is reached or {@link #stop()} is called
+     *
+     * @param game        the position to search; it is restored before returning
+     * @param limits      when to stop
+     * @param onIteration receives the result of each completed iteration
+     * @return the result of the deepest completed iteration, or a depth 0 result if the
+     * search was stopped before completing one
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits, Consumer<SearchResult> onIteration) {
+        stopped = false;
+        table.newSearch();
+        return run(game, limits, onIteration);
+    }
+
+    /**
+     * Searches without clearing an earlier {@link #stop()}, so a helper stopped before it
+     * got to start returns right away. The table's age is left alone: whoever starts the
+     * search advances it once for every thread sharing the table.
+     */
+    SearchResult run(ChessGame game, SearchLimits limits, Consumer<SearchResult> onIteration) {
+        long start = System.nanoTime();
+        this.game = game;
+        // The evaluator may attach incremental state to the caller's board; it is taken off
+        // again afterwards so later moves on the game do not keep paying for it
+        PieceSquareTable previousTable = game.getBoard().getPieceSquareTable();
+        try {
+            evaluator.attach(game);
+            this.nodes = 0;
+            this.nodeLimit = limits.nodes() == 0 ? Long.MAX_VALUE : limits.nodes();
+            this.deadline = limits.timeMillis() == 0 ? Long.MAX_VALUE : start + limits.timeMillis() * 1_000_000;
+            this.aborted = false;
+            this.rootScored = false;
+            keys[0] = game.getZobristKey();
+            pvLength[0] = 0;
+            history.newSearch();
+
+            SearchResult result = null;
+            int previousLength = 0;
+            for (int depth = 1; depth <= limits.maxDepth(); depth++) {
+                if (skipsDepth(depth) && result != null) {
+                    continue;
+                }
+                System.arraycopy(pv[0], 0, previousPv, 0, previousLength);
+                if (previousLength < MAX_PLY) {
+                    previousPv[previousLength] = Move.NONE;
+                }
+                rootScore = -INFINITY;
+                int score = negamax(depth, 0, -INFINITY, INFINITY);
+                long elapsed = (System.nanoTime() - start) / 1_000_000;
+                if (aborted) {
+                    // An unfinished first iteration is not reported as a completed one
+                    return result == null ? unfinished(elapsed) : result;
+                }
+                result = new SearchResult(pvLength[0] == 0 ? null : Move.toChessMove(pv[0][0]), score, depth,
+                        nodes, elapsed, principalVariation());
+                onIteration.accept(result);
+                previousLength = pvLength[0];
+                if (pvLength[0] == 0 || (isMateScore(score) && mateDistance(score) <= depth)) {
+                    break;
+                }
+                if (limits.timeMillis() > 0 && elapsed * 2 > limits.timeMillis()) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            if (game.getBoard().getPieceSquareTable() != previousTable) {
+                game.getBoard().setPieceSquareTable(previousTable);
+            }
+            this.game = null;
+        }
+    }
+
+    /**
+     * Result for a search stopped before its first iteration completed, at depth 0: the
+     * best root move scored so far or, if {@link #stop()} came before any was, the hash
+     * move or else the first legal move
+     */
+    private SearchResult unfinished(long elapsed) {
+        if (rootScored) {
+            return new SearchResult(Move.toChessMove(pv[0][0]), rootScore, 0, nodes, elapsed, principalVariation());
+        }
+        int move = Move.NONE;
+        long entry = table.probe(keys[0]);
+        if (entry != TranspositionTable.MISS) {
+            move = game.findMove(TranspositionTable.move(entry));
+        }
+        if (move == Move.NONE) {
+            game.generateMoves(rootMoves);
+            move = rootMoves.size() == 0 ? Move.NONE : rootMoves.get(0);
+        }
+        ChessMove bestMove = move == Move.NONE ? null : Move.toChessMove(move);
+        return new SearchResult(bestMove, 0, 0, nodes, elapsed, bestMove == null ? List.of() : List.of(bestMove));
+    }
+
+    /**
+     * Makes this search a Lazy SMP helper that skips some iterations
+     *
+     * @param helperIndex 0 for the main search, 1 and up for helpers
+     */
+    void setHelperIndex(int helperIndex) {
+        this.helperIndex = helperIndex;
+    }
+
+    /**
+     * @return nodes visited by the current or last search
+     */
+    long nodes() {
+        return nodes;
+    }
+
+    private boolean skipsDepth(int depth) {
+        if (helperIndex == 0) {
+            return false;
+        }
+        int slot = (helperIndex - 1) % SKIP_SIZE.length;
+        return ((depth + SKIP_PHASE[slot]) / SKIP_SIZE[slot]) % 2 != 0;
+    }
+
+    /**
+     * Asks a running search to return as soon as possible with its last completed iteration
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Clears an earlier {@link #stop()} before a {@link #run}
+     */
+    void resetStop() {
+        stopped = false;
+    }
+
+    /**
+     * @return true if the score means a forced mate for one side
+     */
+    public static boolean isMateScore(int score) {
+        return Math.abs(score) >= MATE - MAX_PLY;
+    }
+
+    /**
+     * @return plies until mate for a mate score; positive when the side to move mates
+     */
+    public static int mateDistance(int score) {
+        return score > 0 ? MATE - score : -(MATE + score);
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if (ply > 0 && isDraw(ply)) {
+            return 0;
+        }
+        if (ply > 0 && tablebase != null
+                && Long.bitCount(game.getBoard().getOccupancy()) <= tablebase.getMaxPieces()) {
+            TablebaseResult result = tablebase.probe(game);
+            if (result != null) {
+                return tablebaseScore(result, ply);
+            }
+        }
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiescence(ply, alpha, beta);
+        }
+        if (countNode() || ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(game);
+        }
+
+        // Only the node reached by playing the previous iteration's PV move for move gets its
+        // PV move as a hash move; anywhere else at that ply it belongs to another position
+        followsPv[ply] = ply == 0 || (followsPv[ply - 1] && playedMoves[ply - 1] == previousPv[ply - 1]);
+        long entry = table.probe(keys[ply]);
+        int hashMove = followsPv[ply] ? previousPv[ply] : Move.NONE;
+        if (entry != TranspositionTable.MISS) {
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        MovePicker picker = pickers[ply];
+        int previousMove = ply > 0 ? playedMoves[ply - 1] : Move.NONE;
+        picker.init(game, history, ply, hashMove, previousMove);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        int move;
+        while ((move = picker.next()) != Move.NONE) {
+            playedMoves[ply] = move;
+            game.makeMove(move);
+            keys[ply + 1] = game.getZobristKey();
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            game.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+            if (ply == 0) {
+                rootScored = true;
+                rootScore = Math.max(rootScore, score);
+            }
+            boolean quiet = !Move.isCapture(move) && !Move.isPromotion(move);
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        if (quiet) {
+                            history.cutoff(ply, depth, game.getTeamTurn().ordinal(), previousMove, move,
+                                    picker.triedQuiets());
+                        }
+                        break;
+                    }
+                }
+            }
+            if (quiet) {
+                picker.triedQuiets().add(move);
+            }
+        }
+        if (bestMove == Move.NONE) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(keys[ply], bestMove, scoreToTable(best, ply), depth, bound);
+        return best;
+    }
+
+    private static int tablebaseScore(TablebaseResult result, int ply) {
+        return switch (result.outcome()) {
+            case WIN -> TABLEBASE_WIN - ply - result.distance();
+            case DRAW -> 0;
+            case LOSS -> -(TABLEBASE_WIN - ply - result.distance());
+        };
+    }
+
+    /**
+     * Mate and tablebase scores are stored relative to the node rather than the root, so
+     * they stay correct when the position is reached at a different ply
+     */
+    static int scoreToTable(int score, int ply) {
+        return score >= DISTANCE_SCORE ? score + ply : score <= -DISTANCE_SCORE ? score - ply : score;
+    }
+
+    static int scoreFromTable(int score, int ply) {
+        return score >= DISTANCE_SCORE ? score - ply : score <= -DISTANCE_SCORE ? score + ply : score;
+    }
+
+    private int quiescence(int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if (countNode() || ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(game);
+        }
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        int best = -INFINITY;
+        if (!inCheck) {
+            best = evaluator.evaluate(game);
+            if (best >= beta) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+        }
+
+        MovePicker picker = pickers[ply];
+        picker.initQuiescence(game, history, inCheck);
+        int move;
+        while ((move = picker.next()) != Move.NONE) {
+            game.makeMove(move);
+            keys[ply + 1] = game.getZobristKey();
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            game.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return inCheck && best == -INFINITY ? -MATE + ply : best;
+    }
+
+    /**
+     * Counts a node and checks the limits; only {@link #stop()} can end the search before a
+     * root move has been scored
+     *
+     * @return true if the search has to stop
+     */
+    private boolean countNode() {
+        nodes++;
+        if (rootScored && nodes >= nodeLimit) {
+            aborted = true;
+        } else if ((nodes & (CHECK_INTERVAL - 1)) == 0
+                && (stopped || (rootScored && System.nanoTime() > deadline))) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    /**
+     * Repetitions are found in the game's own move history, so positions played before
+     * the search started count too. Repeating a position from the search path is scored
+     * as a draw straight away; one from before the root only once it would be the third
+     * occurrence, which is when the game actually ends.
+     *
+     * @return true for a fifty-move draw or a repetition
+     */
+    private boolean isDraw(int ply) {
+        int halfmoveClock = game.getHalfmoveClock();
+        if (halfmoveClock >= 100) {
+            return true;
+        }
+        int oldest = Math.min(halfmoveClock, game.getMoveHistorySize());
+        boolean repeatedBeforeRoot = false;
+        for (int back = 4; back <= oldest; back += 2) {
+            if (game.getPreviousZobristKey(back) == keys[ply]) {
+                if (back <= ply || repeatedBeforeRoot) {
+                    return true;
+                }
+                repeatedBeforeRoot = true;
+            }
+        }
+        return false;
+    }
+
+    private void updatePv(int ply, int move) {
+        pv[ply][ply] = move;
+        int length = pvLength[ply + 1];
+        System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, length - ply - 1);
+        pvLength[ply] = Math.max(length, ply + 1);
+    }
+
+    private List<ChessMove> principalVariation() {
+        List<ChessMove> line = new ArrayList<>(pvLength[0]);
+        for (int i = 0; i < pvLength[0]; i++) {
+            line.add(Move.toChessMove(pv[0][i]));
+        }
+        return line;
+    }
+}
@@ -0,0 +1,54 @@
+package chess.engine;
+
+/**
+ * When a search should stop: after completing a depth, after visiting a number of nodes
+ * or after a time budget, whichever comes first. Zero means no limit of that kind.
+ *
+ * @param depth      deepest iteration to complete, in plies
+ * @param nodes      nodes to visit before stopping
+ * @param timeMillis wall clock time to spend
+ */
+public record SearchLimits(int depth, long nodes, long timeMillis) {
+
+    /**
+     * Depth used when no limit at all is given, so a search always terminates
+     */
+    public static final int MAX_DEPTH = 64;
+
+    public SearchLimits {
+        if (depth < 0 || nodes < 0 || timeMillis < 0) {
+            throw new IllegalArgumentException("Search limits must not be negative");
+        }
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(0, nodes, 0);
+    }
+
+    public static SearchLimits time(long timeMillis) {
+        return new SearchLimits(0, 0, timeMillis);
+    }
+
+    public SearchLimits withDepth(int depth) {
+        return new SearchLimits(depth, nodes, timeMillis);
+    }
+
+    public SearchLimits withNodes(long nodes) {
+        return new SearchLimits(depth, nodes, timeMillis);
+    }
+
+    public SearchLimits withTime(long timeMillis) {
+        return new SearchLimits(depth, nodes, timeMillis);
+    }
+
+    /**
+     * @return the deepest iteration to run
+     */
+    int maxDepth() {
+        return depth == 0 ? MAX_DEPTH : Math.min(depth, MAX_DEPTH);
+    }
+}
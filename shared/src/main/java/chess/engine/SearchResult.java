@@ -0,0 +1,28 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * Outcome of a completed search iteration, or of a search stopped before completing one
+ *
+ * @param bestMove           the move the search recommends, or null if the side to move has none
+ * @param score              score in centipawns from the side to move's point of view; see
+ *                           {@link Search#isMateScore}
+ * @param depth              depth of the iteration, in plies, or 0 if the search was stopped
+ *                           before its first iteration completed
+ * @param nodes              nodes visited so far, including quiescence
+ * @param timeMillis         time spent so far
+ * @param principalVariation expected line of play, starting with {@code bestMove}
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, long timeMillis,
+                           List<ChessMove> principalVariation) {
+
+    /**
+     * @return nodes searched per second
+     */
+    public long nodesPerSecond() {
+        return nodes * 1000 / Math.max(1, timeMillis);
+    }
+}
@@ -0,0 +1,226 @@
+package chess.engine;
+
+import chess.Move;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of search results, shared lock-free between search threads.
+ * <p>
+ * The table is a power-of-two number of two-entry buckets in one {@code long[]}. Each
+ * entry is two longs: the position key XOR-ed with the data, then the data itself
+ * (move, score, depth, bound and search age packed together). Threads read and write
+ * without locks; an entry torn by a concurrent write no longer satisfies
+ * {@code stored ^ data == key} and is treated as a miss, so a probe never returns
+ * data that belongs to another position (short of a full 64-bit key collision).
+ */
+public final class TranspositionTable {
+
+    /**
+     * The score is a lower bound: the search failed high
+     */
+    public static final int LOWER = 1;
+
+    /**
+     * The score is an upper bound: no move raised alpha
+     */
+    public static final int UPPER = 2;
+
+    /**
+     * The score is exact
+     */
+    public static final int EXACT = LOWER | UPPER;
+
+    /**
+     * Value returned by {@link #probe} on a miss; stored data always has a bound set
+     */
+    public static final long MISS = 0L;
+
+    /**
+     * How a bucket chooses which entry to overwrite when storing a new position
+     */
+    public enum Replacement {
+        /**
+         * Always overwrite the bucket's first entry
+         */
+        ALWAYS,
+        /**
+         * Overwrite the entry with the shallowest depth, counting entries from earlier
+         * searches as shallower the older they are
+         */
+        DEPTH_AND_AGE
+    }
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_ENTRIES = 2;
+
+    private static final int MOVE_BITS = 18;
+    private static final int SCORE_SHIFT = MOVE_BITS;
+    private static final int DEPTH_SHIFT = SCORE_SHIFT + 16;
+    private static final int BOUND_SHIFT = DEPTH_SHIFT + 8;
+    private static final int AGE_SHIFT = BOUND_SHIFT + 2;
+    private static final int AGE_MASK = 0x3F;
+
+    private final long[] table;
+    private final long bucketMask;
+    private final Replacement replacement;
+
+    /**
+     * Volatile so helper threads sharing the table see the age set before they started
+     */
+    private volatile int age;
+
+    /**
+     * @param megabytes memory to use; rounded down to a power-of-two number of entries
+     */
+    public TranspositionTable(int megabytes) {
+        this(megabytes, Replacement.DEPTH_AND_AGE);
+    }
+
+    /**
+     * @param megabytes   memory to use; rounded down to a power-of-two number of entries
+     * @param replacement how to choose the entry overwritten by a store
+     */
+    public TranspositionTable(int megabytes, Replacement replacement) {
+        if (megabytes < 1 || megabytes > 32_768) {
+            throw new IllegalArgumentException("Table size must be between 1 and 32768 MB: " + megabytes);
+        }
+        long buckets = Long.highestOneBit((long) megabytes * (1 << 20) / (ENTRY_BYTES * BUCKET_ENTRIES));
+        if (buckets * BUCKET_ENTRIES * 2 > Integer.MAX_VALUE - 8) {
+            buckets >>= 1;
+        }
+        this.table = new long[(int) (buckets * BUCKET_ENTRIES * 2)];
+        this.bucketMask = buckets - 1;
+        this.replacement = replacement;
+    }
+
+    /**
+     * @return the stored data for a position, or {@link #MISS}
+     */
+    public long probe(long key) {
+        int bucket = bucketIndex(key);
+        for (int entry = bucket; entry < bucket + BUCKET_ENTRIES * 2; entry += 2) {
+            long data = table[entry + 1];
+            if ((table[entry] ^ data) == key && data != MISS) {
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores a search result for a position, replacing an older result for the same
+     * position or the bucket entry chosen by the replacement policy
+     *
+     * @param key   position key
+     * @param move  best or refuting packed move, or {@link Move#NONE}
+     * @param score score relative to the side to move, already adjusted for mate distance
+     * @param depth remaining depth the score was searched to
+     * @param bound {@link #LOWER}, {@link #UPPER} or {@link #EXACT}
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int bucket = bucketIndex(key);
+        int target = bucket;
+        int currentAge = age;
+        if (replacement == Replacement.DEPTH_AND_AGE) {
+            int worst = Integer.MAX_VALUE;
+            for (int entry = bucket; entry < bucket + BUCKET_ENTRIES * 2; entry += 2) {
+                long data = table[entry + 1];
+                if ((table[entry] ^ data) == key) {
+                    if (move == Move.NONE) {
+                        move = move(data);
+                    }
+                    target = entry;
+                    break;
+                }
+                int value = data == MISS ? Integer.MIN_VALUE : depth(data) - 8 * ((currentAge - age(data)) & AGE_MASK);
+                if (value < worst) {
+                    worst = value;
+                    target = entry;
+                }
+            }
+        }
+        long data = pack(move, score, depth, bound, currentAge);
+        table[target + 1] = data;
+        table[target] = key ^ data;
+    }
+
+    /**
+     * Marks the start of a new search so entries from earlier searches age out first.
+     * Call it once per search, not once per thread, or entries of the running search look stale.
+     */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    /**
+     * @return age of the current search, as stored in the entries it writes
+     */
+    int age() {
+        return age;
+    }
+
+    /**
+     * Empties the table
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        age = 0;
+    }
+
+    /**
+     * @return number of entries the table can hold
+     */
+    public int capacity() {
+        return table.length / 2;
+    }
+
+    /**
+     * @return per mille of a sample of entries written during the current search
+     */
+    public int hashfull() {
+        int sample = Math.min(1000, capacity());
+        int currentAge = age;
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            long data = table[i * 2 + 1];
+            if (data != MISS && age(data) == currentAge) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    public static int move(long data) {
+        return (int) (data & ((1L << MOVE_BITS) - 1));
+    }
+
+    public static int score(long data) {
+        return (int) ((data >>> SCORE_SHIFT) & 0xFFFF) - 0x8000;
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> BOUND_SHIFT) & 0x3);
+    }
+
+    private static int age(long data) {
+        return (int) ((data >>> AGE_SHIFT) & AGE_MASK);
+    }
+
+    private static long pack(int move, int score, int depth, int bound, int age) {
+        return (move & ((1L << MOVE_BITS) - 1))
+                | (long) (score + 0x8000) << SCORE_SHIFT
+                | (long) Math.min(Math.max(depth, 0), 0xFF) << DEPTH_SHIFT
+                | (long) bound << BOUND_SHIFT
+                | (long) age << AGE_SHIFT;
+    }
+
+    private int bucketIndex(long key) {
+        // The low bits of a Zobrist key are as random as the high ones
+        return (int) (key & bucketMask) * BUCKET_ENTRIES * 2;
+    }
+}
@@ -0,0 +1,24 @@
+package chess.notation;
+
+/**
+ * Square coordinate helpers shared by the notation codecs
+ */
+final class Notation {
+
+    private Notation() {
+    }
+
+    /**
+     * @return the square index for a file letter and rank digit, or -1 if either is off the board
+     */
+    static int square(char file, char rank) {
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            return -1;
+        }
+        return (rank - '1') * 8 + (file - 'a');
+    }
+
+    static void appendSquare(StringBuilder out, int square) {
+        out.append((char) ('a' + (square & 7))).append((char) ('1' + (square >>> 3)));
+    }
+}
@@ -0,0 +1,220 @@
+package chess.notation;
+
+import chess.Attacks;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Move;
+import chess.MoveList;
+
+/**
+ * Standard Algebraic Notation, for example "Nbd7", "exd6", "e8=Q+" or "O-O-O#".
+ * <p>
+ * Both directions work against the legal move list the caller already has for the
+ * position. Disambiguation first intersects the attack set of the destination square
+ * with the mover's other pieces of the same type, so the move list is only scanned in
+ * the rare case another such piece could reach the same square.
+ */
+public final class San {
+
+    /**
+     * Piece letters in {@link ChessPiece.PieceType} order
+     */
+    private static final String PIECE_LETTERS = "KQBNRP";
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private San() {
+    }
+
+    /**
+     * @return the move in SAN for the game's current position
+     * @throws IllegalArgumentException if the move is not legal there
+     */
+    public static String encode(ChessGame game, ChessMove move) {
+        MoveList legal = new MoveList();
+        game.generateMoves(legal);
+        int packed = legal.find(move);
+        if (packed == Move.NONE) {
+            throw new IllegalArgumentException("Illegal move " + Uci.encode(move) + " in " + game.toFen());
+        }
+        return encode(game, legal, packed, new StringBuilder(8)).toString();
+    }
+
+    /**
+     * Appends a legal move in SAN, including the check or mate suffix. The move is made
+     * and taken back on {@code game} to find the suffix.
+     *
+     * @param game  the position the move is played in
+     * @param legal legal moves of that position, as filled by {@link ChessGame#generateMoves}
+     * @param move  the packed move, one of {@code legal}
+     * @return {@code out}
+     */
+    public static StringBuilder encode(ChessGame game, MoveList legal, int move, StringBuilder out) {
+        ChessBoard board = game.getBoard();
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece piece = board.getPiece(ChessPosition.fromSquare(from));
+        ChessPiece.PieceType type = piece.getPieceType();
+        if (Move.isCastle(move)) {
+            out.append(to > from ? "O-O" : "O-O-O");
+        } else if (type == ChessPiece.PieceType.PAWN) {
+            if (Move.isCapture(move)) {
+                out.append((char) ('a' + (from & 7))).append('x');
+            }
+            Notation.appendSquare(out, to);
+            ChessPiece.PieceType promotion = Move.promotion(move);
+            if (promotion != null) {
+                out.append('=').append(PIECE_LETTERS.charAt(promotion.ordinal()));
+            }
+        } else {
+            out.append(PIECE_LETTERS.charAt(type.ordinal()));
+            long rivals = Attacks.attacks(type, piece.getTeamColor(), to, board.getOccupancy())
+                    & board.getPieces(piece.getTeamColor(), type) & ~(1L << from);
+            if (rivals != 0) {
+                appendDisambiguation(out, legal, from, to, rivals);
+            }
+            if (Move.isCapture(move)) {
+                out.append('x');
+            }
+            Notation.appendSquare(out, to);
+        }
+
+        game.makeMove(move);
+        // Only a check can be mate, so the reply moves are generated just for checks
+        ChessGame.TeamColor opponent = game.getTeamTurn();
+        if (game.isInCheck(opponent)) {
+            out.append(game.isInCheckmate(opponent) ? '#' : '+');
+        }
+        game.unmakeMove();
+        return out;
+    }
+
+    /**
+     * @return the legal move a SAN string names
+     * @throws IllegalArgumentException if no legal move, or more than one, matches
+     */
+    public static ChessMove decode(ChessGame game, CharSequence san) {
+        MoveList legal = new MoveList();
+        game.generateMoves(legal);
+        int move = decode(game, legal, san);
+        if (move == Move.NONE) {
+            throw new IllegalArgumentException("No legal move " + san + " in " + game.toFen());
+        }
+        return Move.toChessMove(move);
+    }
+
+    /**
+     * Finds the legal move a SAN string names. Check, mate and annotation suffixes are
+     * ignored, "0-0" is accepted for castling and the "=" before a promotion piece and the
+     * "x" of a capture are optional.
+     *
+     * @param game  the position the move is played in
+     * @param legal legal moves of that position
+     * @return the packed move, or {@link Move#NONE} if no legal move or more than one matches
+     */
+    public static int decode(ChessGame game, MoveList legal, CharSequence san) {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        if (end == 0) {
+            return Move.NONE;
+        }
+        if (san.charAt(0) == 'O' || san.charAt(0) == '0') {
+            int distance = end == 3 ? 2 : end == 5 ? -2 : 0;
+            for (int i = 0; i < legal.size() && distance != 0; i++) {
+                int move = legal.get(i);
+                if (Move.isCastle(move) && Move.to(move) - Move.from(move) == distance) {
+                    return move;
+                }
+            }
+            return Move.NONE;
+        }
+
+        int start = 0;
+        ChessPiece.PieceType type = ChessPiece.PieceType.PAWN;
+        if (Character.isUpperCase(san.charAt(0))) {
+            int letter = PIECE_LETTERS.indexOf(san.charAt(0));
+            if (letter < 0) {
+                return Move.NONE;
+            }
+            type = TYPES[letter];
+            start = 1;
+        }
+        ChessPiece.PieceType promotion = null;
+        if (end - start >= 3 && Character.isUpperCase(san.charAt(end - 1))) {
+            int letter = PIECE_LETTERS.indexOf(san.charAt(end - 1));
+            if (letter < 0) {
+                return Move.NONE;
+            }
+            promotion = TYPES[letter];
+            end -= san.charAt(end - 2) == '=' ? 2 : 1;
+        }
+        if (end - start < 2) {
+            return Move.NONE;
+        }
+        int to = Notation.square(san.charAt(end - 2), san.charAt(end - 1));
+        if (to < 0) {
+            return Move.NONE;
+        }
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != ':' && c != '-') {
+                return Move.NONE;
+            }
+        }
+
+        long movers = game.getBoard().getPieces(game.getTeamTurn(), type);
+        int match = Move.NONE;
+        for (int i = 0; i < legal.size(); i++) {
+            int move = legal.get(i);
+            int from = Move.from(move);
+            if (Move.to(move) != to || Move.promotion(move) != promotion || (movers & (1L << from)) == 0
+                    || (fromFile >= 0 && (from & 7) != fromFile) || (fromRank >= 0 && (from >>> 3) != fromRank)) {
+                continue;
+            }
+            if (match != Move.NONE) {
+                return Move.NONE;
+            }
+            match = move;
+        }
+        return match;
+    }
+
+    /**
+     * Adds the file, rank or both of {@code from} when another piece on {@code rivals}
+     * has a legal move to the same square, preferring the file as SAN requires
+     */
+    private static void appendDisambiguation(StringBuilder out, MoveList legal, int from, int to, long rivals) {
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < legal.size(); i++) {
+            int other = legal.get(i);
+            int otherFrom = Move.from(other);
+            if (Move.to(other) == to && (rivals & (1L << otherFrom)) != 0) {
+                ambiguous = true;
+                sameFile |= (otherFrom & 7) == (from & 7);
+                sameRank |= (otherFrom >>> 3) == (from >>> 3);
+            }
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameFile) {
+            out.append((char) ('a' + (from & 7)));
+        } else if (!sameRank) {
+            out.append((char) ('1' + (from >>> 3)));
+        } else {
+            Notation.appendSquare(out, from);
+        }
+    }
+}
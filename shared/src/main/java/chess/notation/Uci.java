@@ -0,0 +1,117 @@
+package chess.notation;
+
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Move;
+import chess.MoveList;
+
+/**
+ * Long algebraic notation as used by the UCI protocol: start and end square followed by
+ * a lower case promotion letter, for example "e2e4", "e1g1" (castling) or "e7e8q".
+ * UCI needs no position to write a move; reading one back into a packed move matches it
+ * against the position's legal moves to recover the flags.
+ */
+public final class Uci {
+
+    /**
+     * Promotion letters in {@link ChessPiece.PieceType} order
+     */
+    private static final String PIECE_LETTERS = "kqbnrp";
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Uci() {
+    }
+
+    /**
+     * @return the move in UCI notation
+     */
+    public static String encode(ChessMove move) {
+        StringBuilder uci = new StringBuilder(5);
+        Notation.appendSquare(uci, move.getStartPosition().getSquare());
+        Notation.appendSquare(uci, move.getEndPosition().getSquare());
+        if (move.getPromotionPiece() != null) {
+            uci.append(PIECE_LETTERS.charAt(move.getPromotionPiece().ordinal()));
+        }
+        return uci.toString();
+    }
+
+    /**
+     * Appends a packed move in UCI notation
+     *
+     * @return {@code out}
+     */
+    public static StringBuilder encode(int move, StringBuilder out) {
+        Notation.appendSquare(out, Move.from(move));
+        Notation.appendSquare(out, Move.to(move));
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        if (promotion != null) {
+            out.append(PIECE_LETTERS.charAt(promotion.ordinal()));
+        }
+        return out;
+    }
+
+    /**
+     * Reads a move in UCI notation without checking it against any position
+     *
+     * @throws IllegalArgumentException if the text is not a UCI move
+     */
+    public static ChessMove decode(CharSequence uci) {
+        int move = parse(uci);
+        if (move < 0) {
+            throw new IllegalArgumentException("Not a UCI move: " + uci);
+        }
+        return Move.toChessMove(move);
+    }
+
+    /**
+     * Finds the legal move a UCI string names
+     *
+     * @param legal legal moves of the position
+     * @return the packed move with its flags, or {@link Move#NONE} if it is not in the list
+     */
+    public static int decode(MoveList legal, CharSequence uci) {
+        int move = parse(uci);
+        if (move < 0) {
+            return Move.NONE;
+        }
+        for (int i = 0; i < legal.size(); i++) {
+            if (Move.sameMove(legal.get(i), move)) {
+                return legal.get(i);
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * @return the packed move without flags, or -1 if the text is malformed
+     */
+    private static int parse(CharSequence uci) {
+        if (uci.length() != 4 && uci.length() != 5) {
+            return -1;
+        }
+        int from = Notation.square(uci.charAt(0), uci.charAt(1));
+        int to = Notation.square(uci.charAt(2), uci.charAt(3));
+        if (from < 0 || to < 0) {
+            return -1;
+        }
+        ChessPiece.PieceType promotion = null;
+        if (uci.length() == 5) {
+            int letter = PIECE_LETTERS.indexOf(Character.toLowerCase(uci.charAt(4)));
+            if (letter < 0) {
+                return -1;
+            }
+            promotion = TYPES[letter];
+        }
+        return Move.encode(from, to, promotion, 0);
+    }
+
+    /**
+     * @return the square in coordinate notation, for example "e4"
+     */
+    public static String square(ChessPosition position) {
+        StringBuilder out = new StringBuilder(2);
+        Notation.appendSquare(out, position.getSquare());
+        return out.toString();
+    }
+}
@@ -0,0 +1,28 @@
+package chess.pgn;
+
+import java.io.IOException;
+
+/**
+ * Indicates PGN input that cannot be parsed or replayed
+ */
+public class PgnFormatException extends IOException {
+
+    private final int line;
+
+    public PgnFormatException(String message) {
+        super(message);
+        this.line = -1;
+    }
+
+    public PgnFormatException(String message, int line) {
+        super(message + " (line " + line + ")");
+        this.line = line;
+    }
+
+    /**
+     * @return the 1-based input line the problem was found on, or -1 if not reading input
+     */
+    public int getLine() {
+        return line;
+    }
+}
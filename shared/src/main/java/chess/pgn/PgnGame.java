@@ -0,0 +1,92 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game of a PGN archive: its tag pairs, the moves played and the game result
+ */
+public final class PgnGame {
+
+    public static final String WHITE_WINS = "1-0";
+    public static final String BLACK_WINS = "0-1";
+    public static final String DRAW = "1/2-1/2";
+    public static final String UNKNOWN = "*";
+
+    private final Map<String, String> tags;
+    private final List<ChessMove> moves;
+    private final String result;
+
+    /**
+     * @param tags   tag pairs in the order they should be written; a "FEN" tag gives the
+     *               starting position
+     * @param moves  moves played from the starting position
+     * @param result one of {@link #WHITE_WINS}, {@link #BLACK_WINS}, {@link #DRAW} or {@link #UNKNOWN}
+     */
+    public PgnGame(Map<String, String> tags, List<ChessMove> moves, String result) {
+        if (!isResult(result)) {
+            throw new IllegalArgumentException("Unknown game result: " + result);
+        }
+        this.tags = Collections.unmodifiableMap(new LinkedHashMap<>(tags));
+        this.moves = List.copyOf(moves);
+        this.result = result;
+    }
+
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    /**
+     * @return the value of a tag, or null if the game does not have it
+     */
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    public List<ChessMove> getMoves() {
+        return moves;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * @return a new game at the starting position, taken from the "FEN" tag if present
+     */
+    public ChessGame startingPosition() {
+        String fen = tags.get("FEN");
+        return fen == null ? new ChessGame() : ChessGame.fromFen(fen);
+    }
+
+    /**
+     * @return a new game with every move of this game played
+     * @throws InvalidMoveException if a move is not legal where it is played
+     */
+    public ChessGame replay() throws InvalidMoveException {
+        ChessGame game = startingPosition();
+        for (ChessMove move : moves) {
+            game.makeMove(move);
+        }
+        return game;
+    }
+
+    /**
+     * @return true if the token is one of the four PGN game termination markers
+     */
+    static boolean isResult(CharSequence token) {
+        return WHITE_WINS.contentEquals(token) || BLACK_WINS.contentEquals(token)
+                || DRAW.contentEquals(token) || UNKNOWN.contentEquals(token);
+    }
+
+    @Override
+    public String toString() {
+        return "PgnGame{" + tags + ", " + moves.size() + " moves, " + result + "}";
+    }
+}
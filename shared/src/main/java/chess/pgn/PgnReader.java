@@ -0,0 +1,399 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+import chess.MoveList;
+import chess.notation.San;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Reads games one at a time from a PGN byte stream, replaying each move on a
+ * {@link ChessGame} so only legal games are returned.
+ * <p>
+ * Input is pulled through a fixed-size buffer and only the game being read is held in
+ * memory, so archives of any size can be processed. Comments, variations, numeric
+ * annotation glyphs and escape lines are skipped. Tag values are decoded as UTF-8.
+ * <p>
+ * {@link #readParallel} splits a file at game boundaries and reads the pieces on a
+ * fork-join pool.
+ */
+public final class PgnReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Smallest byte range handed to one parallel task
+     */
+    private static final long MIN_CHUNK = 1 << 20;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final long limit;
+    private final MoveList legal = new MoveList();
+    private final StringBuilder token = new StringBuilder(16);
+    private byte[] text = new byte[128];
+    private long offset;
+    private int line = 1;
+    private int previous = '\n';
+    private boolean endOfInput;
+
+    /**
+     * @param channel source of PGN bytes, read from its current position; must be in
+     *                blocking mode
+     * @throws IllegalArgumentException if the channel is selectable and non-blocking
+     */
+    public PgnReader(ReadableByteChannel channel) {
+        this(channel, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param limit games starting this many bytes or more into the channel are not read
+     */
+    PgnReader(ReadableByteChannel channel, long limit) {
+        if (channel instanceof SelectableChannel selectable && !selectable.isBlocking()) {
+            throw new IllegalArgumentException("PGN input must be read from a blocking channel");
+        }
+        this.channel = channel;
+        this.limit = limit;
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        this.buffer.flip();
+    }
+
+    /**
+     * Reads and replays the next game
+     *
+     * @return the game, or null once the input is exhausted
+     * @throws PgnFormatException if the game is malformed or contains an illegal move
+     */
+    public PgnGame next() throws IOException {
+        skipWhitespace();
+        if (peek() < 0 || offset >= limit) {
+            return null;
+        }
+
+        Map<String, String> tags = new LinkedHashMap<>();
+        skipWhitespace();
+        while (peek() == '[') {
+            readTag(tags);
+            skipWhitespace();
+        }
+
+        ChessGame game;
+        try {
+            game = tags.containsKey("FEN") ? ChessGame.fromFen(tags.get("FEN")) : new ChessGame();
+        } catch (IllegalArgumentException e) {
+            throw new PgnFormatException(e.getMessage(), line);
+        }
+        List<ChessMove> moves = new ArrayList<>();
+        String result = PgnGame.UNKNOWN;
+        while (true) {
+            skipWhitespace();
+            int c = peek();
+            if (c < 0 || c == '[') {
+                break;
+            } else if (c == '{') {
+                skipPast('}');
+            } else if (c == ';' || (c == '%' && atLineStart())) {
+                skipPast('\n');
+            } else if (c == '(') {
+                skipVariation();
+            } else if (c == ')' || c == '}') {
+                throw new PgnFormatException("Unbalanced '" + (char) c + "'", line);
+            } else {
+                readToken();
+                if (token.charAt(0) == '$') {
+                    continue;
+                }
+                if (PgnGame.isResult(token)) {
+                    result = token.toString();
+                    break;
+                }
+                stripMoveNumber();
+                if (token.length() > 0) {
+                    moves.add(play(game));
+                }
+            }
+        }
+        return new PgnGame(tags, moves, result);
+    }
+
+    /**
+     * Calls {@code action} for every remaining game
+     */
+    public void forEach(Consumer<? super PgnGame> action) throws IOException {
+        for (PgnGame game = next(); game != null; game = next()) {
+            action.accept(game);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads every game of a PGN file in parallel. The file is cut into byte ranges,
+     * each range is moved forward to the next game boundary (a tag line following a
+     * blank line) and each piece is read by its own {@link PgnReader} on {@code pool}.
+     * Games are delivered in no particular order, from several threads at once, so
+     * {@code action} must be thread-safe. Line numbers in errors count from the start
+     * of the piece being read.
+     *
+     * @param file   the PGN file
+     * @param pool   pool to run the readers on
+     * @param action receives each game
+     * @throws PgnFormatException if any game is malformed
+     */
+    public static void readParallel(Path file, ForkJoinPool pool, Consumer<? super PgnGame> action) throws IOException {
+        long size;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+        }
+        long chunk = Math.max(MIN_CHUNK, size / (pool.getParallelism() * 4L) + 1);
+        int chunks = (int) Math.max(1, (size + chunk - 1) / chunk);
+        try {
+            pool.invoke(new ChunkTask(file, size, chunk, 0, chunks, action));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Reads chunks {@code [first, last)} of a file, splitting in half until one is left
+     */
+    private static final class ChunkTask extends RecursiveAction {
+        private final Path file;
+        private final long size;
+        private final long chunk;
+        private final int first;
+        private final int last;
+        private final Consumer<? super PgnGame> action;
+
+        ChunkTask(Path file, long size, long chunk, int first, int last, Consumer<? super PgnGame> action) {
+            this.file = file;
+            this.size = size;
+            this.chunk = chunk;
+            this.first = first;
+            this.last = last;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (last - first > 1) {
+                int middle = (first + last) >>> 1;
+                invokeAll(new ChunkTask(file, size, chunk, first, middle, action),
+                        new ChunkTask(file, size, chunk, middle, last, action));
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long start = gameBoundary(channel, first * chunk, size);
+                long end = gameBoundary(channel, Math.min(size, last * chunk), size);
+                if (start >= end) {
+                    return;
+                }
+                channel.position(start);
+                new PgnReader(channel, end - start).forEach(action);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * @return offset of the first '[' at or after {@code from} that starts a line
+     * directly after a blank line, or {@code size} if there is none
+     */
+    static long gameBoundary(FileChannel channel, long from, long size) throws IOException {
+        if (from == 0 || from >= size) {
+            return Math.min(from, size);
+        }
+        ByteBuffer window = ByteBuffer.allocate(BUFFER_SIZE);
+        long base = Math.max(0, from - 3);
+        // The last three bytes seen before the current one: '\n', '\r' or anything else
+        int previous = 0;
+        int beforePrevious = 0;
+        int third = 0;
+        while (base < size) {
+            window.clear();
+            int read = channel.read(window, base);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                int b = window.get(i);
+                long at = base + i;
+                if (b == '[' && at >= from && previous == '\n'
+                        && (beforePrevious == '\n' || (beforePrevious == '\r' && third == '\n'))) {
+                    return at;
+                }
+                third = beforePrevious;
+                beforePrevious = previous;
+                previous = b;
+            }
+            base += read;
+        }
+        return size;
+    }
+
+    private ChessMove play(ChessGame game) throws PgnFormatException {
+        game.generateMoves(legal);
+        int move = San.decode(game, legal, token);
+        if (move == Move.NONE) {
+            throw new PgnFormatException("Illegal or ambiguous move '" + token + "' in position " + game.toFen(), line);
+        }
+        game.makeMove(move);
+        return Move.toChessMove(move);
+    }
+
+    private void readTag(Map<String, String> tags) throws IOException {
+        read();
+        skipWhitespace();
+        token.setLength(0);
+        for (int c = peek(); c > ' ' && c != '"' && c != ']'; c = peek()) {
+            token.append((char) read());
+        }
+        if (token.length() == 0) {
+            throw new PgnFormatException("Missing tag name", line);
+        }
+        String name = token.toString();
+        skipWhitespace();
+        if (read() != '"') {
+            throw new PgnFormatException("Missing value for tag " + name, line);
+        }
+        int length = 0;
+        for (int c = read(); c != '"'; c = read()) {
+            if (c < 0 || c == '\n') {
+                throw new PgnFormatException("Unterminated value for tag " + name, line);
+            }
+            if (c == '\\') {
+                c = read();
+            }
+            if (length == text.length) {
+                text = Arrays.copyOf(text, length * 2);
+            }
+            text[length++] = (byte) c;
+        }
+        skipWhitespace();
+        if (read() != ']') {
+            throw new PgnFormatException("Missing ']' after tag " + name, line);
+        }
+        tags.put(name, new String(text, 0, length, StandardCharsets.UTF_8));
+    }
+
+    private void readToken() throws IOException {
+        token.setLength(0);
+        for (int c = peek(); c > ' ' && "{}();[".indexOf(c) < 0; c = peek()) {
+            token.append((char) read());
+        }
+    }
+
+    /**
+     * Removes a leading move number such as "12." or "12..." from the token
+     */
+    private void stripMoveNumber() {
+        int i = 0;
+        while (i < token.length() && Character.isDigit(token.charAt(i))) {
+            i++;
+        }
+        if (i == 0 || (i < token.length() && token.charAt(i) != '.')) {
+            return;
+        }
+        while (i < token.length() && token.charAt(i) == '.') {
+            i++;
+        }
+        token.delete(0, i);
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 0;
+        for (int c = read(); c >= 0; c = read()) {
+            if (c == '{') {
+                skipPast('}');
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return;
+            }
+        }
+        throw new PgnFormatException("Unterminated variation", line);
+    }
+
+    private void skipPast(int terminator) throws IOException {
+        for (int c = read(); c != terminator; c = read()) {
+            if (c < 0) {
+                if (terminator == '\n') {
+                    return;
+                }
+                throw new PgnFormatException("Missing '" + (char) terminator + "'", line);
+            }
+        }
+    }
+
+    private void skipWhitespace() throws IOException {
+        for (int c = peek(); c >= 0 && c <= ' '; c = peek()) {
+            read();
+        }
+    }
+
+    private boolean atLineStart() {
+        return previous == '\n';
+    }
+
+    private int peek() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get(buffer.position()) & 0xFF;
+    }
+
+    private int read() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        int c = buffer.get() & 0xFF;
+        offset++;
+        if (c == '\n') {
+            line++;
+        }
+        previous = c;
+        return c;
+    }
+
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+        buffer.clear();
+        int read = channel.read(buffer);
+        buffer.flip();
+        if (read == 0) {
+            // A blocking channel returns at least one byte or end of input
+            throw new IOException("PGN input channel returned no bytes; it must be blocking");
+        }
+        if (read < 0) {
+            endOfInput = true;
+            return false;
+        }
+        return true;
+    }
+}
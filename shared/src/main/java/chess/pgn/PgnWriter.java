@@ -0,0 +1,145 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+import chess.MoveList;
+import chess.notation.San;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Writes games in PGN export format: the seven tag roster first, then any other tags,
+ * then SAN movetext wrapped below 80 columns and the result, with a blank line after
+ * each game. Output goes through a fixed-size buffer to a channel.
+ */
+public final class PgnWriter implements Closeable, Flushable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int LINE_LENGTH = 79;
+    private static final String[] ROSTER = {"Event", "Site", "Date", "Round", "White", "Black", "Result"};
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final StringBuilder text = new StringBuilder(1024);
+    private final MoveList legal = new MoveList();
+    private final StringBuilder san = new StringBuilder(8);
+
+    public PgnWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Writes one game. Its moves are replayed from the starting position to produce SAN.
+     *
+     * @throws PgnFormatException if a move of the game is not legal
+     */
+    public void write(PgnGame game) throws IOException {
+        text.setLength(0);
+        Map<String, String> tags = game.getTags();
+        for (String name : ROSTER) {
+            String value = name.equals("Result") ? game.getResult() : tags.get(name);
+            appendTag(name, value != null ? value : name.equals("Date") ? "????.??.??" : "?");
+        }
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            if (!isRosterTag(tag.getKey())) {
+                appendTag(tag.getKey(), tag.getValue());
+            }
+        }
+        text.append('\n');
+
+        ChessGame position = game.startingPosition();
+        int lineStart = text.length();
+        boolean first = true;
+        for (ChessMove move : game.getMoves()) {
+            position.generateMoves(legal);
+            int packed = legal.find(move);
+            if (packed == Move.NONE) {
+                throw new PgnFormatException("Illegal move " + move + " in position " + position.toFen());
+            }
+            boolean white = position.getTeamTurn() == ChessGame.TeamColor.WHITE;
+            if (white || first) {
+                lineStart = appendWord(position.getFullmoveNumber() + (white ? "." : "..."), lineStart);
+            }
+            san.setLength(0);
+            lineStart = appendWord(San.encode(position, legal, packed, san), lineStart);
+            position.makeMove(packed);
+            first = false;
+        }
+        appendWord(game.getResult(), lineStart);
+        text.append("\n\n");
+        writeText();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    private void appendTag(String name, String value) {
+        text.append('[').append(name).append(" \"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                text.append('\\');
+            }
+            text.append(c);
+        }
+        text.append("\"]\n");
+    }
+
+    /**
+     * Appends a movetext word, starting a new line if it would pass the line length
+     *
+     * @return the offset the current line starts at
+     */
+    private int appendWord(CharSequence word, int lineStart) {
+        if (text.length() > lineStart) {
+            if (text.length() - lineStart + 1 + word.length() > LINE_LENGTH) {
+                text.append('\n');
+                lineStart = text.length();
+            } else {
+                text.append(' ');
+            }
+        }
+        text.append(word);
+        return lineStart;
+    }
+
+    private void writeText() throws IOException {
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        for (int written = 0; written < bytes.length; ) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - written);
+            buffer.put(bytes, written, length);
+            written += length;
+        }
+    }
+
+    private static boolean isRosterTag(String name) {
+        for (String roster : ROSTER) {
+            if (roster.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,176 @@
+package chess.tablebase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Distance-to-mate table for one material, bit-packed with as few bits per position as
+ * its longest mate needs.
+ * <p>
+ * Each position holds a code: 0 for a draw (or an index that is not a legal position),
+ * otherwise the number of plies to mate plus one. An even number of plies means the side
+ * to move is mated, an odd number that it mates. The fifty-move rule is not considered.
+ * <p>
+ * A table file is a 32-byte header (magic, bits per code, material name length, code
+ * count, longest distance, then the name) followed by the codes packed into big-endian
+ * longs, lowest bits first. Tables read from disk stay memory-mapped and may be probed
+ * from several threads at once.
+ */
+public final class EndgameTable {
+
+    public static final String FILE_SUFFIX = ".tb";
+
+    private static final int MAGIC = 0x43544231;
+    private static final int HEADER_BYTES = 32;
+    private static final int NAME_OFFSET = 16;
+
+    private final Material material;
+    private final TableIndex index;
+    private final int bits;
+    private final int maxDistance;
+    private final LongBuffer words;
+
+    private EndgameTable(Material material, int bits, int maxDistance, LongBuffer words) {
+        this.material = material;
+        this.index = new TableIndex(material);
+        this.bits = bits;
+        this.maxDistance = maxDistance;
+        this.words = words;
+    }
+
+    /**
+     * Packs freshly generated codes
+     */
+    static EndgameTable pack(Material material, short[] codes) {
+        int largest = 0;
+        for (short code : codes) {
+            largest = Math.max(largest, code);
+        }
+        int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(largest));
+        long[] words = new long[(int) (((long) codes.length * bits + 63) >>> 6)];
+        for (int i = 0; i < codes.length; i++) {
+            long bit = (long) i * bits;
+            int word = (int) (bit >>> 6);
+            int shift = (int) (bit & 63);
+            words[word] |= (long) codes[i] << shift;
+            if (shift + bits > 64) {
+                words[word + 1] |= (long) codes[i] >>> 64 - shift;
+            }
+        }
+        return new EndgameTable(material, bits, Math.max(0, largest - 1), LongBuffer.wrap(words));
+    }
+
+    /**
+     * Maps a table file
+     *
+     * @throws IOException if the file cannot be read or is not a table
+     */
+    public static EndgameTable read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Not an endgame table: " + path);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            int bits = header.get(4);
+            int nameLength = header.get(5);
+            int size = header.getInt(8);
+            int maxDistance = header.getInt(12);
+            if (header.getInt(0) != MAGIC || bits < 1 || bits > 16 || nameLength < 0
+                    || nameLength > HEADER_BYTES - NAME_OFFSET) {
+                throw new IOException("Not an endgame table: " + path);
+            }
+            byte[] name = new byte[nameLength];
+            header.get(NAME_OFFSET, name);
+            Material material;
+            try {
+                material = Material.parse(new String(name, StandardCharsets.US_ASCII));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Not an endgame table: " + path, e);
+            }
+            long length = ((long) size * bits + 63) >>> 6 << 3;
+            if (size != new TableIndex(material).size() || channel.size() != HEADER_BYTES + length) {
+                throw new IOException("Truncated or mismatched endgame table: " + path);
+            }
+            LongBuffer words = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, length).asLongBuffer();
+            return new EndgameTable(material, bits, maxDistance, words);
+        }
+    }
+
+    /**
+     * Writes the table to a file, replacing any existing one
+     */
+    public void write(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        byte[] name = material.toString().getBytes(StandardCharsets.US_ASCII);
+        buffer.putInt(MAGIC).put((byte) bits).put((byte) name.length).putShort((short) 0)
+                .putInt(index.size()).putInt(maxDistance).put(name);
+        buffer.position(HEADER_BYTES);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < words.limit(); i++) {
+                if (buffer.remaining() < Long.BYTES) {
+                    drain(buffer, channel);
+                }
+                buffer.putLong(words.get(i));
+            }
+            drain(buffer, channel);
+        }
+    }
+
+    public Material getMaterial() {
+        return material;
+    }
+
+    /**
+     * @return the longest distance to mate in the table, in plies
+     */
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * @return bits each position takes up
+     */
+    public int getBitsPerPosition() {
+        return bits;
+    }
+
+    TableIndex index() {
+        return index;
+    }
+
+    /**
+     * @return the code stored for an index
+     */
+    int code(int position) {
+        long bit = (long) position * bits;
+        int word = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        long value = words.get(word) >>> shift;
+        if (shift + bits > 64) {
+            value |= words.get(word + 1) << 64 - shift;
+        }
+        return (int) (value & (1L << bits) - 1);
+    }
+
+    static boolean isLoss(int code) {
+        return (code & 1) == 1;
+    }
+
+    static boolean isWin(int code) {
+        return code != 0 && (code & 1) == 0;
+    }
+
+    private static void drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
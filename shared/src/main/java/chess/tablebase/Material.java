@@ -0,0 +1,298 @@
+package chess.tablebase;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The pieces of an endgame, named like {@code KQvKR}: White's king and pieces, a
+ * {@code v}, then Black's, each side listing its pieces from queen down to pawn.
+ * <p>
+ * A table is only stored for one colouring of each material, with the stronger side as
+ * White; positions with the colours the other way round are probed by mirroring the
+ * board. {@link #canonical()} picks that colouring.
+ */
+public final class Material {
+
+    /**
+     * Order of the non-king pieces within a side, which is also their order in a table index
+     */
+    static final ChessPiece.PieceType[] ORDER = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.PAWN,
+    };
+
+    /**
+     * Base of a signature's digits: a side has at most {@code MAX_PIECES - 2} of a type
+     * besides its king in any material a table can be made for
+     */
+    private static final int SIGNATURE_BASE = Tablebase.MAX_PIECES - 1;
+
+    /**
+     * Number of distinct signatures, White's side taking the high digits
+     */
+    private static final int SIDE_SIGNATURES = pow(SIGNATURE_BASE, ORDER.length);
+    static final int SIGNATURES = SIDE_SIGNATURES * SIDE_SIGNATURES;
+
+    private static final int[] VALUES = {9, 5, 3, 3, 1};
+    private static final String LETTERS = "QRBNP";
+    private static final Pattern NAME = Pattern.compile("K[QRBNP]*vK[QRBNP]*");
+
+    /**
+     * Piece counts by team, then by position in {@link #ORDER}
+     */
+    private final int[][] counts;
+    private final String name;
+    private final int signature;
+
+    private Material(int[][] counts) {
+        this.counts = counts;
+        this.name = side(counts[0]) + "v" + side(counts[1]);
+        this.signature = signature(counts);
+    }
+
+    /**
+     * @param name material such as {@code KRPvKR}; pieces may be listed in any order
+     * @throws IllegalArgumentException if the name is not a material
+     */
+    public static Material parse(String name) {
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Not a material: " + name);
+        }
+        int[][] counts = new int[2][ORDER.length];
+        int team = 0;
+        for (int i = 1; i < name.length(); i++) {
+            char letter = name.charAt(i);
+            if (letter == 'v') {
+                team = 1;
+                i++;
+            } else {
+                counts[team][LETTERS.indexOf(letter)]++;
+            }
+        }
+        return new Material(counts);
+    }
+
+    /**
+     * @return the material on the board, or null unless each team has exactly one king
+     */
+    public static Material of(ChessBoard board) {
+        int[][] counts = new int[2][ORDER.length];
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            if (Long.bitCount(board.getPieces(color, ChessPiece.PieceType.KING)) != 1) {
+                return null;
+            }
+            for (int i = 0; i < ORDER.length; i++) {
+                counts[color.ordinal()][i] = Long.bitCount(board.getPieces(color, ORDER[i]));
+            }
+        }
+        return new Material(counts);
+    }
+
+    /**
+     * Identifies the material on a board as a small number without allocating, for
+     * lookups on the search's hot path
+     *
+     * @return the same value as {@link #signature()} for the board's material, or -1 unless
+     * each team has exactly one king and the material is small enough to have a table
+     */
+    static int signature(ChessBoard board) {
+        if (Long.bitCount(board.getPieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING)) != 1
+                || Long.bitCount(board.getPieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING)) != 1) {
+            return -1;
+        }
+        int signature = 0;
+        for (int team = 0; team < 2; team++) {
+            ChessGame.TeamColor color = team == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            for (ChessPiece.PieceType type : ORDER) {
+                int count = Long.bitCount(board.getPieces(color, type));
+                if (count >= SIGNATURE_BASE) {
+                    return -1;
+                }
+                signature = signature * SIGNATURE_BASE + count;
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * @return the signature of the material with the teams swapped
+     */
+    static int mirrorSignature(int signature) {
+        return signature % SIDE_SIGNATURES * SIDE_SIGNATURES + signature / SIDE_SIGNATURES;
+    }
+
+    /**
+     * @return a number from 0 (bare kings) below {@link #SIGNATURES} identifying the material,
+     * or -1 if it has too many pieces of a type for any table
+     */
+    int signature() {
+        return signature;
+    }
+
+    /**
+     * @return number of pieces on the board, kings included
+     */
+    public int pieceCount() {
+        int pieces = 2;
+        for (int[] team : counts) {
+            for (int count : team) {
+                pieces += count;
+            }
+        }
+        return pieces;
+    }
+
+    /**
+     * @return how many pieces of the type the team has besides its king
+     */
+    public int count(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        for (int i = 0; i < ORDER.length; i++) {
+            if (ORDER[i] == type) {
+                return counts[color.ordinal()][i];
+            }
+        }
+        return type == ChessPiece.PieceType.KING ? 1 : 0;
+    }
+
+    public boolean hasPawns() {
+        return counts[0][ORDER.length - 1] + counts[1][ORDER.length - 1] > 0;
+    }
+
+    /**
+     * @return the same material with the teams swapped
+     */
+    public Material mirrored() {
+        return new Material(new int[][]{counts[1].clone(), counts[0].clone()});
+    }
+
+    /**
+     * @return true if this is the colouring tables are stored for
+     */
+    public boolean isCanonical() {
+        return compareSides(counts[0], counts[1]) >= 0;
+    }
+
+    /**
+     * @return this material or its mirror, whichever tables are stored for
+     */
+    public Material canonical() {
+        return isCanonical() ? this : mirrored();
+    }
+
+    /**
+     * @return the materials one capture or one promotion away, each in canonical colouring,
+     * leaving out bare kings
+     */
+    public List<Material> successors() {
+        List<Material> successors = new ArrayList<>();
+        for (int team = 0; team < 2; team++) {
+            for (int i = 0; i < ORDER.length; i++) {
+                if (counts[team][i] == 0) {
+                    continue;
+                }
+                int[][] captured = copy();
+                captured[team][i]--;
+                add(successors, new Material(captured));
+                if (ORDER[i] != ChessPiece.PieceType.PAWN) {
+                    continue;
+                }
+                for (int promotion = 0; promotion < ORDER.length - 1; promotion++) {
+                    int[][] promoted = copy();
+                    promoted[team][i]--;
+                    promoted[team][promotion]++;
+                    add(successors, new Material(promoted));
+                }
+            }
+        }
+        return successors;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Material other && name.equals(other.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    int count(int team, int order) {
+        return counts[team][order];
+    }
+
+    private int[][] copy() {
+        return new int[][]{counts[0].clone(), counts[1].clone()};
+    }
+
+    private static void add(List<Material> materials, Material material) {
+        Material canonical = material.canonical();
+        if (canonical.pieceCount() > 2 && !materials.contains(canonical)) {
+            materials.add(canonical);
+        }
+    }
+
+    private static int signature(int[][] counts) {
+        int signature = 0;
+        for (int[] team : counts) {
+            for (int count : team) {
+                if (count >= SIGNATURE_BASE) {
+                    return -1;
+                }
+                signature = signature * SIGNATURE_BASE + count;
+            }
+        }
+        return signature;
+    }
+
+    private static int pow(int base, int exponent) {
+        int power = 1;
+        for (int i = 0; i < exponent; i++) {
+            power *= base;
+        }
+        return power;
+    }
+
+    private static String side(int[] counts) {
+        StringBuilder side = new StringBuilder("K");
+        for (int i = 0; i < ORDER.length; i++) {
+            side.append(String.valueOf(LETTERS.charAt(i)).repeat(counts[i]));
+        }
+        return side.toString();
+    }
+
+    /**
+     * Orders sides by material value, then by piece count, then by their strongest pieces,
+     * so exactly one colouring of an unbalanced material compares above zero
+     */
+    private static int compareSides(int[] first, int[] second) {
+        int value = 0;
+        int pieces = 0;
+        for (int i = 0; i < ORDER.length; i++) {
+            value += (first[i] - second[i]) * VALUES[i];
+            pieces += first[i] - second[i];
+        }
+        if (value != 0) {
+            return value;
+        }
+        if (pieces != 0) {
+            return pieces;
+        }
+        for (int i = 0; i < ORDER.length; i++) {
+            if (first[i] != second[i]) {
+                return first[i] - second[i];
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,219 @@
+package chess.tablebase;
+
+import chess.Attacks;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.util.Arrays;
+
+/**
+ * Maps the positions of one material to dense table indexes and back.
+ * <p>
+ * The pieces are numbered White's king, Black's king, White's other pieces and then
+ * Black's, each side in {@link Material#ORDER}. An index packs the White king's slot,
+ * six bits per other piece's square and the side to move in the lowest bit. Board
+ * symmetry shrinks the White king to a slot on files a to d, or in pawnless endings to
+ * the ten squares of the a1-d1-d4 triangle; the squares of identical pieces are kept in
+ * increasing order. Indexes whose squares break these rules, overlap or put pawns on the
+ * back ranks decode as invalid.
+ */
+final class TableIndex {
+
+    private static final int[] TRIANGLE = {0, 1, 2, 3, 9, 10, 11, 18, 19, 27};
+
+    private final ChessPiece.PieceType[] types;
+    private final ChessGame.TeamColor[] colors;
+
+    /**
+     * One past the last piece of each piece's group of identical pieces
+     */
+    private final int[] groupEnds;
+    private final boolean pawns;
+    private final int[] kingSquares;
+    private final int[] kingSlots = new int[64];
+    private final int size;
+
+    TableIndex(Material material) {
+        int pieces = material.pieceCount();
+        this.types = new ChessPiece.PieceType[pieces];
+        this.colors = new ChessGame.TeamColor[pieces];
+        this.groupEnds = new int[pieces];
+        types[0] = ChessPiece.PieceType.KING;
+        colors[0] = ChessGame.TeamColor.WHITE;
+        groupEnds[0] = 1;
+        types[1] = ChessPiece.PieceType.KING;
+        colors[1] = ChessGame.TeamColor.BLACK;
+        groupEnds[1] = 2;
+        int next = 2;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (int order = 0; order < Material.ORDER.length; order++) {
+                int count = material.count(color.ordinal(), order);
+                for (int i = 0; i < count; i++) {
+                    types[next + i] = Material.ORDER[order];
+                    colors[next + i] = color;
+                    groupEnds[next + i] = next + count;
+                }
+                next += count;
+            }
+        }
+
+        this.pawns = material.hasPawns();
+        if (pawns) {
+            kingSquares = new int[32];
+            for (int slot = 0; slot < 32; slot++) {
+                kingSquares[slot] = (slot >>> 2) * 8 + (slot & 3);
+            }
+        } else {
+            kingSquares = TRIANGLE;
+        }
+        Arrays.fill(kingSlots, -1);
+        for (int slot = 0; slot < kingSquares.length; slot++) {
+            kingSlots[kingSquares[slot]] = slot;
+        }
+        this.size = (kingSquares.length << 6 * (pieces - 1)) * 2;
+    }
+
+    /**
+     * @return number of indexes, valid or not
+     */
+    int size() {
+        return size;
+    }
+
+    int pieceCount() {
+        return types.length;
+    }
+
+    ChessPiece.PieceType type(int piece) {
+        return types[piece];
+    }
+
+    ChessGame.TeamColor color(int piece) {
+        return colors[piece];
+    }
+
+    static boolean whiteToMove(int index) {
+        return (index & 1) == 0;
+    }
+
+    /**
+     * Reads the pieces' squares off a board holding this material
+     *
+     * @param flip    true if the board holds the mirrored material, whose colours and
+     *                ranks are swapped on the way
+     * @param squares receives one square per piece
+     */
+    void squares(ChessBoard board, boolean flip, int[] squares) {
+        for (int piece = 0; piece < types.length; piece = groupEnds[piece]) {
+            ChessGame.TeamColor color = colors[piece];
+            if (flip) {
+                color = color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            }
+            long bits = board.getPieces(color, types[piece]);
+            for (int member = piece; member < groupEnds[piece]; member++) {
+                int square = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                squares[member] = flip ? square ^ 56 : square;
+            }
+        }
+    }
+
+    /**
+     * Computes the index of a position, moving it into the canonical part of the board
+     *
+     * @param squares one square per piece; rewritten with the canonical squares
+     */
+    int encode(int[] squares, boolean whiteToMove) {
+        int king = squares[0];
+        int mirror = (king & 7) > 3 ? 7 : 0;
+        if (!pawns && king >>> 3 > 3) {
+            mirror |= 56;
+        }
+        king ^= mirror;
+        boolean transpose = !pawns && king >>> 3 > (king & 7);
+        for (int piece = 0; piece < squares.length; piece++) {
+            int square = squares[piece] ^ mirror;
+            squares[piece] = transpose ? (square & 7) << 3 | square >>> 3 : square;
+        }
+        for (int piece = 2; piece < squares.length; piece++) {
+            int square = squares[piece];
+            int slot = piece;
+            while (slot > 0 && groupEnds[slot - 1] == groupEnds[piece] && squares[slot - 1] > square) {
+                squares[slot] = squares[slot - 1];
+                slot--;
+            }
+            squares[slot] = square;
+        }
+
+        int index = kingSlots[squares[0]];
+        for (int piece = 1; piece < squares.length; piece++) {
+            index = index << 6 | squares[piece];
+        }
+        return index << 1 | (whiteToMove ? 0 : 1);
+    }
+
+    /**
+     * Positions of pawnless endings with the White king on the a1-h8 diagonal have a twin
+     * mirrored in the diagonal under another index
+     *
+     * @param squares scratch space for one square per piece
+     * @return index of the twin, or -1 if the position has none
+     */
+    int diagonalTwin(int index, int[] squares) {
+        if (pawns || !decode(index, squares) || squares[0] >>> 3 != (squares[0] & 7)) {
+            return -1;
+        }
+        for (int piece = 0; piece < squares.length; piece++) {
+            int square = squares[piece];
+            squares[piece] = (square & 7) << 3 | square >>> 3;
+        }
+        int twin = encode(squares, whiteToMove(index));
+        return twin == index ? -1 : twin;
+    }
+
+    /**
+     * @param squares receives one square per piece
+     * @return false if the index does not stand for a position
+     */
+    boolean decode(int index, int[] squares) {
+        int rest = index >>> 1;
+        long occupied = 0;
+        for (int piece = squares.length - 1; piece > 0; piece--) {
+            squares[piece] = rest & 63;
+            rest >>>= 6;
+        }
+        squares[0] = kingSquares[rest];
+        for (int piece = 0; piece < squares.length; piece++) {
+            int square = squares[piece];
+            if ((occupied & 1L << square) != 0) {
+                return false;
+            }
+            occupied |= 1L << square;
+            if (types[piece] == ChessPiece.PieceType.PAWN && (square < 8 || square >= 56)) {
+                return false;
+            }
+            if (piece > 0 && groupEnds[piece - 1] == groupEnds[piece] && squares[piece - 1] > square) {
+                return false;
+            }
+        }
+        return (Attacks.kingAttacks(squares[0]) & 1L << squares[1]) == 0;
+    }
+
+    /**
+     * @return true if a piece of the given team attacks the target square
+     */
+    boolean attacks(int[] squares, ChessGame.TeamColor by, int target) {
+        long occupied = 0;
+        for (int square : squares) {
+            occupied |= 1L << square;
+        }
+        for (int piece = 0; piece < squares.length; piece++) {
+            if (colors[piece] == by && squares[piece] != target
+                    && (Attacks.attacks(types[piece], by, squares[piece], occupied) & 1L << target) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,251 @@
+package chess.tablebase;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+import chess.MoveList;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Perfect play for endings with few pieces, looked up in {@link EndgameTable}s made by
+ * {@link TablebaseGenerator}.
+ * <p>
+ * A position can be probed when every piece on the board is covered by a table of its
+ * material (or only the kings are left) and neither side can still castle. Positions in
+ * which an en passant capture is possible are resolved by probing each move, since the
+ * tables only hold positions without one.
+ * <p>
+ * Tables are added before probing starts; probes only read them and may run on several
+ * threads at once. The search probes at every node with few enough pieces, so a probe
+ * allocates nothing: tables are found by {@link Material#signature} and each thread
+ * reuses its own scratch space.
+ */
+public final class Tablebase {
+
+    /**
+     * Most pieces, kings included, a table can be generated for
+     */
+    public static final int MAX_PIECES = 4;
+
+    /**
+     * Longest distance to mate, in plies, a table may hold; the search relies on it to tell
+     * tablebase scores apart from evaluations
+     */
+    public static final int MAX_DISTANCE = 1024;
+
+    /**
+     * Nesting allowed for en passant positions resolved by probing each move, each of
+     * which uses up a pawn
+     */
+    private static final int MAX_LEVELS = MAX_PIECES + 1;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final Map<Material, EndgameTable> tables = new HashMap<>();
+
+    /**
+     * Every table under the signature of its material in both colourings
+     */
+    private final EndgameTable[] bySignature = new EndgameTable[Material.SIGNATURES];
+    private int maxPieces;
+
+    /**
+     * Maps every table file in a directory
+     */
+    public static Tablebase open(Path directory) throws IOException {
+        Tablebase tablebase = new Tablebase();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EndgameTable.FILE_SUFFIX)) {
+            for (Path file : files) {
+                tablebase.add(EndgameTable.read(file));
+            }
+        }
+        return tablebase;
+    }
+
+    /**
+     * Adds a table, replacing any earlier one for the same material
+     *
+     * @throws IllegalArgumentException if the table holds a mate longer than {@link #MAX_DISTANCE}
+     *                                  or more than {@link #MAX_PIECES} pieces
+     */
+    public void add(EndgameTable table) {
+        Material material = table.getMaterial();
+        if (table.getMaxDistance() > MAX_DISTANCE) {
+            throw new IllegalArgumentException("Table " + material + " has mates longer than "
+                    + MAX_DISTANCE + " plies");
+        }
+        if (material.pieceCount() > MAX_PIECES) {
+            throw new IllegalArgumentException("Table " + material + " has more than " + MAX_PIECES + " pieces");
+        }
+        tables.put(material, table);
+        bySignature[material.signature()] = table;
+        bySignature[Material.mirrorSignature(material.signature())] = table;
+        maxPieces = Math.max(maxPieces, table.getMaterial().pieceCount());
+    }
+
+    /**
+     * @return the table for the material in either colouring, or null if there is none
+     */
+    public EndgameTable getTable(Material material) {
+        return tables.get(material.canonical());
+    }
+
+    /**
+     * @return every table, in no particular order
+     */
+    public Collection<EndgameTable> getTables() {
+        return Collections.unmodifiableCollection(tables.values());
+    }
+
+    /**
+     * @return most pieces on the board, kings included, of any table
+     */
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    /**
+     * Looks up the game's current position
+     *
+     * @return the outcome for the side to move, or null if the position is not covered
+     */
+    public TablebaseResult probe(ChessGame game) {
+        if (!covers(game)) {
+            return null;
+        }
+        int code = probeCode(game, SCRATCH.get(), 0);
+        return code < 0 ? null : TablebaseResult.of(code);
+    }
+
+    /**
+     * Finds the move that wins fastest, or draws, or else holds out longest
+     *
+     * @return the move, or null if the position is not covered or has no legal move
+     */
+    public ChessMove bestMove(ChessGame game) {
+        if (!covers(game)) {
+            return null;
+        }
+        MoveList moves = new MoveList();
+        game.generateMoves(moves);
+        Scratch scratch = SCRATCH.get();
+        int best = Move.NONE;
+        int bestRank = Integer.MIN_VALUE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            game.makeMove(move);
+            int code = probeCode(game, scratch, 0);
+            game.unmakeMove();
+            if (code < 0) {
+                return null;
+            }
+            // Mating the opponent soonest ranks first, draws next, then the slowest loss
+            int rank = code == 0 ? 0 : EndgameTable.isLoss(code) ? Short.MAX_VALUE - code : code - Short.MAX_VALUE;
+            if (rank > bestRank) {
+                best = move;
+                bestRank = rank;
+            }
+        }
+        return best == Move.NONE ? null : Move.toChessMove(best);
+    }
+
+    /**
+     * @return the table code of a position without en passant rights, 0 for bare kings,
+     * or -1 if no table covers it
+     */
+    int code(ChessBoard board, boolean whiteToMove) {
+        return code(board, whiteToMove, SCRATCH.get());
+    }
+
+    private int code(ChessBoard board, boolean whiteToMove, Scratch scratch) {
+        int signature = Material.signature(board);
+        if (signature <= 0) {
+            // Bare kings are a draw; anything else without a signature has no table
+            return signature;
+        }
+        EndgameTable table = bySignature[signature];
+        if (table == null) {
+            return -1;
+        }
+        boolean flip = table.getMaterial().signature() != signature;
+        TableIndex index = table.index();
+        int[] squares = scratch.squares[index.pieceCount()];
+        index.squares(board, flip, squares);
+        return table.code(index.encode(squares, whiteToMove != flip));
+    }
+
+    private boolean covers(ChessGame game) {
+        return game.getCastlingRights() == 0 && Long.bitCount(game.getBoard().getOccupancy()) <= Math.max(2, maxPieces);
+    }
+
+    /**
+     * @return the code of the game's position, or -1 if it is not covered
+     */
+    private int probeCode(ChessGame game, Scratch scratch, int level) {
+        if (game.getEnPassantPosition() != null && level < MAX_LEVELS) {
+            MoveList moves = scratch.moves[level];
+            game.generateMoves(moves);
+            for (int i = 0; i < moves.size(); i++) {
+                if (Move.isEnPassant(moves.get(i))) {
+                    return backUp(game, scratch, level);
+                }
+            }
+        }
+        return code(game.getBoard(), game.getTeamTurn() == ChessGame.TeamColor.WHITE, scratch);
+    }
+
+    /**
+     * @return the code of a position worked out from the codes after each of its moves
+     */
+    private int backUp(ChessGame game, Scratch scratch, int level) {
+        MoveList moves = scratch.moves[level];
+        int fastestLoss = Integer.MAX_VALUE;
+        int slowestWin = 0;
+        boolean draw = false;
+        for (int i = 0; i < moves.size(); i++) {
+            game.makeMove(moves.get(i));
+            int code = probeCode(game, scratch, level + 1);
+            game.unmakeMove();
+            if (code < 0) {
+                return -1;
+            } else if (code == 0) {
+                draw = true;
+            } else if (EndgameTable.isLoss(code)) {
+                fastestLoss = Math.min(fastestLoss, code);
+            } else {
+                slowestWin = Math.max(slowestWin, code);
+            }
+        }
+        if (fastestLoss != Integer.MAX_VALUE) {
+            return fastestLoss + 1;
+        }
+        return draw ? 0 : slowestWin + 1;
+    }
+
+    /**
+     * Per-thread space for a probe: piece squares for each piece count and a move list for
+     * each level of en passant resolution
+     */
+    private static final class Scratch {
+        private final int[][] squares = new int[MAX_PIECES + 1][];
+        private final MoveList[] moves = new MoveList[MAX_LEVELS];
+
+        Scratch() {
+            for (int count = 0; count <= MAX_PIECES; count++) {
+                squares[count] = new int[count];
+            }
+            for (int level = 0; level < MAX_LEVELS; level++) {
+                moves[level] = new MoveList();
+            }
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package chess.tablebase;
+
+import chess.Attacks;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Move;
+import chess.MoveList;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Builds {@link EndgameTable}s by retrograde analysis, using {@link ChessGame} for the
+ * rules.
+ * <p>
+ * Every legal position of the material is first looked at once: checkmates are lost in
+ * zero plies, and captures and promotions are scored from the smaller tables they lead
+ * to, which are generated first when missing. Results then spread backwards one ply at a
+ * time. A position one move before a loss is won one ply later. A position one move
+ * before a win is looked at again, and is lost once every move from it reaches a win.
+ * Because positions are settled in order of distance, every distance is the shortest
+ * mate for the winner and the longest for the loser. Positions never settled are draws.
+ * <p>
+ * A double pawn push that allows an en passant reply does not lead to a position in the
+ * table, so positions with such a push are rechecked at every distance instead of being
+ * reached backwards through it.
+ * <p>
+ * Run {@code main} with an output directory and the materials to generate, such as
+ * {@code tables KQvK KRvK KPvK}; tables already in the directory are reused.
+ */
+public final class TablebaseGenerator {
+
+    private final Tablebase tablebase;
+
+    /**
+     * @param tablebase supplies existing tables and receives every table generated
+     */
+    public TablebaseGenerator(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Generates the table for a material and any smaller table it depends on, skipping
+     * tables the tablebase already has
+     *
+     * @return the material's table
+     * @throws IllegalArgumentException for more than {@link Tablebase#MAX_PIECES} pieces
+     *                                  or bare kings
+     */
+    public EndgameTable generate(Material material) {
+        Material canonical = material.canonical();
+        if (canonical.pieceCount() > Tablebase.MAX_PIECES || canonical.pieceCount() < 3) {
+            throw new IllegalArgumentException("Cannot generate a table for " + material);
+        }
+        EndgameTable existing = tablebase.getTable(canonical);
+        if (existing != null) {
+            return existing;
+        }
+        int horizon = 0;
+        for (Material successor : canonical.successors()) {
+            horizon = Math.max(horizon, generate(successor).getMaxDistance());
+        }
+        EndgameTable table = new Retrograde(canonical, horizon).run();
+        tablebase.add(table);
+        return table;
+    }
+
+    /**
+     * Settles the positions of one material
+     */
+    private final class Retrograde {
+
+        /**
+         * Nesting allowed for en passant replies, each of which uses up a pawn
+         */
+        private static final int MAX_LEVELS = Tablebase.MAX_PIECES + 1;
+
+        private final TableIndex index;
+        private final Material material;
+        private final int horizon;
+        private final short[] codes;
+        private final BitSet enPassant = new BitSet();
+        private int[][] buckets = new int[0][];
+        private int[] bucketSizes = new int[0];
+        private final ChessGame game = new ChessGame();
+        private final ChessBoard board = new ChessBoard();
+        private final MoveList[] moveLists = new MoveList[MAX_LEVELS];
+        private final int[] squares;
+        private final int[] placed;
+        private final int[] predecessor;
+        private final int[] scratch;
+        private boolean sawEnPassant;
+
+        /**
+         * @param horizon longest distance in the tables this one leads to
+         */
+        Retrograde(Material material, int horizon) {
+            this.material = material;
+            this.index = new TableIndex(material);
+            this.horizon = horizon + 2;
+            this.codes = new short[index.size()];
+            this.squares = new int[index.pieceCount()];
+            this.placed = new int[index.pieceCount()];
+            this.predecessor = new int[index.pieceCount()];
+            this.scratch = new int[index.pieceCount()];
+            for (int level = 0; level < MAX_LEVELS; level++) {
+                moveLists[level] = new MoveList();
+            }
+        }
+
+        EndgameTable run() {
+            for (int position = 0; position < codes.length; position++) {
+                if (!setUp(position)) {
+                    continue;
+                }
+                sawEnPassant = false;
+                int code = evaluate(Integer.MAX_VALUE, 0);
+                if (sawEnPassant) {
+                    enPassant.set(position);
+                }
+                if (EndgameTable.isLoss(code)) {
+                    codes[position] = (short) code;
+                    add(code - 1, position);
+                } else if (code != 0) {
+                    // Only tentative: a win inside the table may turn out shorter
+                    add(code - 1, ~position);
+                }
+            }
+
+            for (int distance = 0; distance < buckets.length + 2 || distance <= horizon; distance++) {
+                recheckEnPassant(distance);
+                for (int i = 0; i < bucketSize(distance); i++) {
+                    int entry = buckets[distance][i];
+                    int position = entry;
+                    if (entry < 0) {
+                        position = ~entry;
+                        if (codes[position] != 0) {
+                            continue;
+                        }
+                        codes[position] = (short) (distance + 1);
+                    }
+                    retract(position, distance);
+                }
+            }
+            return EndgameTable.pack(material, codes);
+        }
+
+        /**
+         * Positions with a push allowing en passant are settled by looking forward, once
+         * every position they can reach within the distance has been settled
+         */
+        private void recheckEnPassant(int distance) {
+            for (int position = enPassant.nextSetBit(0); position >= 0; position = enPassant.nextSetBit(position + 1)) {
+                if (codes[position] != 0) {
+                    continue;
+                }
+                setUp(position);
+                int code = evaluate(distance - 1, 0);
+                if (code == distance + 1) {
+                    codes[position] = (short) code;
+                    add(distance, position);
+                }
+            }
+        }
+
+        /**
+         * Visits every position one move before a settled one
+         */
+        private void retract(int position, int distance) {
+            index.decode(position, squares);
+            boolean whiteMoved = !TableIndex.whiteToMove(position);
+            ChessGame.TeamColor mover = whiteMoved ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            int waitingKing = squares[whiteMoved ? 1 : 0];
+            boolean lost = EndgameTable.isLoss(codes[position]);
+            long occupied = 0;
+            for (int square : squares) {
+                occupied |= 1L << square;
+            }
+
+            for (int piece = 0; piece < squares.length; piece++) {
+                if (index.color(piece) != mover) {
+                    continue;
+                }
+                int to = squares[piece];
+                ChessPiece.PieceType type = index.type(piece);
+                long origins = type == ChessPiece.PieceType.PAWN
+                        ? pawnOrigins(to, whiteMoved, occupied)
+                        : Attacks.attacks(type, mover, to, occupied) & ~occupied;
+                for (; origins != 0; origins &= origins - 1) {
+                    int from = Long.numberOfTrailingZeros(origins);
+                    System.arraycopy(squares, 0, predecessor, 0, squares.length);
+                    predecessor[piece] = from;
+                    if (index.attacks(predecessor, mover, waitingKing)) {
+                        continue;
+                    }
+                    int earlier = index.encode(predecessor, whiteMoved);
+                    boolean doublePush = type == ChessPiece.PieceType.PAWN && Math.abs(to - from) == 16;
+                    reached(earlier, lost, doublePush, distance);
+                    int twin = index.diagonalTwin(earlier, predecessor);
+                    if (twin >= 0) {
+                        reached(twin, lost, doublePush, distance);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Settles a position one move before one settled at the distance, if it can be
+         */
+        private void reached(int earlier, boolean lost, boolean doublePush, int distance) {
+            if (codes[earlier] != 0) {
+                return;
+            }
+            if (lost) {
+                if (!doublePush || !enPassant.get(earlier)) {
+                    codes[earlier] = (short) (distance + 2);
+                    add(distance + 1, earlier);
+                }
+            } else {
+                // Settled codes are exact, so a loss may be settled beyond this distance
+                // when a capture or promotion from it leads to a slower win
+                setUp(earlier);
+                int code = evaluate(Integer.MAX_VALUE, 0);
+                if (EndgameTable.isLoss(code)) {
+                    codes[earlier] = (short) code;
+                    add(code - 1, earlier);
+                }
+            }
+        }
+
+        /**
+         * @return squares a pawn standing on {@code to} may have just moved from
+         */
+        private static long pawnOrigins(int to, boolean white, long occupied) {
+            int step = white ? -8 : 8;
+            int single = to + step;
+            if (single < 8 || single >= 56 || (occupied & 1L << single) != 0) {
+                return 0;
+            }
+            long origins = 1L << single;
+            int doubled = single + step;
+            if (to >>> 3 == (white ? 3 : 4) && (occupied & 1L << doubled) == 0) {
+                origins |= 1L << doubled;
+            }
+            return origins;
+        }
+
+        /**
+         * Works out the code of the game's position from the codes after each move,
+         * counting only codes settled within the limit
+         *
+         * @return the code, or 0 while it is not known
+         */
+        private int evaluate(int limit, int level) {
+            MoveList moves = moveLists[level];
+            game.generateMoves(moves);
+            if (moves.isEmpty()) {
+                return game.isInCheck(game.getTeamTurn()) ? 1 : 0;
+            }
+            int fastestLoss = Integer.MAX_VALUE;
+            int slowestWin = 0;
+            boolean settled = true;
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                game.makeMove(move);
+                int code = code(move, limit, level);
+                game.unmakeMove();
+                if (code == 0 || code - 1 > limit) {
+                    settled = false;
+                } else if (EndgameTable.isLoss(code)) {
+                    fastestLoss = Math.min(fastestLoss, code);
+                } else {
+                    slowestWin = Math.max(slowestWin, code);
+                }
+            }
+            if (fastestLoss != Integer.MAX_VALUE) {
+                return fastestLoss + 1;
+            }
+            return settled ? slowestWin + 1 : 0;
+        }
+
+        /**
+         * @return the code of the position after a move
+         */
+        private int code(int move, int limit, int level) {
+            if (game.getEnPassantPosition() != null && level + 1 < MAX_LEVELS && allowsEnPassant(level + 1)) {
+                sawEnPassant |= level == 0;
+                return evaluate(limit, level + 1);
+            }
+            boolean whiteToMove = game.getTeamTurn() == ChessGame.TeamColor.WHITE;
+            if (!Move.isCapture(move) && !Move.isPromotion(move)) {
+                index.squares(game.getBoard(), false, scratch);
+                return codes[index.encode(scratch, whiteToMove)];
+            }
+            int code = tablebase.code(game.getBoard(), whiteToMove);
+            if (code < 0) {
+                throw new IllegalStateException("Missing table for " + Material.of(game.getBoard()));
+            }
+            return code;
+        }
+
+        private boolean allowsEnPassant(int level) {
+            MoveList moves = moveLists[level];
+            game.generateMoves(moves);
+            for (int i = 0; i < moves.size(); i++) {
+                if (Move.isEnPassant(moves.get(i))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Puts a position on the board
+         *
+         * @return false if the index is not a legal position
+         */
+        private boolean setUp(int position) {
+            if (!index.decode(position, placed)) {
+                return false;
+            }
+            boolean whiteToMove = TableIndex.whiteToMove(position);
+            int waitingKing = placed[whiteToMove ? 1 : 0];
+            if (index.attacks(placed, whiteToMove ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK,
+                    waitingKing)) {
+                return false;
+            }
+            board.clear();
+            for (int piece = 0; piece < placed.length; piece++) {
+                board.addPiece(ChessPosition.fromSquare(placed[piece]),
+                        ChessPiece.of(index.color(piece), index.type(piece)));
+            }
+            game.setBoard(board);
+            game.setCastlingRights(0);
+            game.setTeamTurn(whiteToMove ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK);
+            return true;
+        }
+
+        private void add(int distance, int entry) {
+            if (distance >= buckets.length) {
+                int length = Math.max(distance + 1, buckets.length * 2);
+                int start = buckets.length;
+                buckets = Arrays.copyOf(buckets, length);
+                bucketSizes = Arrays.copyOf(bucketSizes, length);
+                for (int i = start; i < length; i++) {
+                    buckets[i] = new int[64];
+                }
+            }
+            int size = bucketSizes[distance];
+            if (size == buckets[distance].length) {
+                buckets[distance] = Arrays.copyOf(buckets[distance], size * 2);
+            }
+            buckets[distance][size] = entry;
+            bucketSizes[distance] = size + 1;
+        }
+
+        private int bucketSize(int distance) {
+            return distance < buckets.length ? bucketSizes[distance] : 0;
+        }
+    }
+
+    /**
+     * Generates tables into a directory: {@code <directory> <material>...}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: TablebaseGenerator <directory> <material>...");
+            System.exit(2);
+        }
+        Path directory = Path.of(args[0]);
+        Files.createDirectories(directory);
+        Tablebase tablebase = Tablebase.open(directory);
+        TablebaseGenerator generator = new TablebaseGenerator(tablebase);
+        for (int i = 1; i < args.length; i++) {
+            long start = System.nanoTime();
+            EndgameTable table = generator.generate(Material.parse(args[i]));
+            System.out.printf("%s: longest mate %d plies, %d bits per position, %d ms%n", table.getMaterial(),
+                    table.getMaxDistance(), table.getBitsPerPosition(), (System.nanoTime() - start) / 1_000_000);
+        }
+        for (EndgameTable table : tablebase.getTables()) {
+            Path file = directory.resolve(table.getMaterial() + EndgameTable.FILE_SUFFIX);
+            if (!Files.exists(file)) {
+                table.write(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package chess.tablebase;
+
+/**
+ * Exact outcome of a position found in a {@link Tablebase}, for the side to move
+ *
+ * @param outcome  whether the side to move wins, draws or loses with best play
+ * @param distance plies to mate with best play by both sides, 0 for a draw or a mated king
+ */
+public record TablebaseResult(Outcome outcome, int distance) {
+
+    public enum Outcome {
+        WIN,
+        DRAW,
+        LOSS
+    }
+
+    static final TablebaseResult DRAW = new TablebaseResult(Outcome.DRAW, 0);
+
+    /**
+     * Every result a table code can describe, indexed by code, so probes do not allocate
+     */
+    private static final TablebaseResult[] RESULTS = new TablebaseResult[Tablebase.MAX_DISTANCE + 2];
+
+    static {
+        RESULTS[0] = DRAW;
+        for (int code = 1; code < RESULTS.length; code++) {
+            RESULTS[code] = new TablebaseResult(EndgameTable.isWin(code) ? Outcome.WIN : Outcome.LOSS, code - 1);
+        }
+    }
+
+    /**
+     * @param code a table code as described by {@link EndgameTable}
+     */
+    static TablebaseResult of(int code) {
+        return RESULTS[code];
+    }
+}
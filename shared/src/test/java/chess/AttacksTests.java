@@ -0,0 +1,56 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class AttacksTests {
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    @Test
+    @DisplayName("Magic Lookups Match Ray Walks")
+    public void magicLookupsMatchRayWalks() {
+        Random random = new Random(240);
+        for (int trial = 0; trial < 2000; trial++) {
+            long occupied = random.nextLong() & random.nextLong();
+            for (int square = 0; square < 64; square++) {
+                Assertions.assertEquals(walk(square, occupied, ROOK_DIRECTIONS), Attacks.rookAttacks(square, occupied),
+                        "Rook attacks differ on square " + square);
+                Assertions.assertEquals(walk(square, occupied, BISHOP_DIRECTIONS), Attacks.bishopAttacks(square, occupied),
+                        "Bishop attacks differ on square " + square);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Leaper Attacks Stay On Board")
+    public void leaperAttacksStayOnBoard() {
+        Assertions.assertEquals(2, Long.bitCount(Attacks.knightAttacks(0)));
+        Assertions.assertEquals(8, Long.bitCount(Attacks.knightAttacks(new ChessPosition(4, 4).getSquare())));
+        Assertions.assertEquals(3, Long.bitCount(Attacks.kingAttacks(63)));
+        Assertions.assertEquals(1, Long.bitCount(Attacks.pawnAttacks(ChessGame.TeamColor.WHITE, 8)));
+        Assertions.assertEquals(0, Attacks.pawnAttacks(ChessGame.TeamColor.WHITE, 60));
+    }
+
+    private static long walk(int square, long occupied, int[][] directions) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int row = (square >>> 3) + direction[0];
+            int column = (square & 7) + direction[1];
+            while (row >= 0 && row < 8 && column >= 0 && column < 8) {
+                long bit = 1L << (row * 8 + column);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return attacks;
+    }
+}
@@ -0,0 +1,94 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class BoardTests {
+
+    @Test
+    @DisplayName("King Squares Follow The Kings")
+    public void kingSquaresFollowKings() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        ChessBoard board = game.getBoard();
+        Assertions.assertEquals(new ChessPosition(1, 5), board.getKingPosition(ChessGame.TeamColor.WHITE));
+        Assertions.assertEquals(60, board.getKingSquare(ChessGame.TeamColor.BLACK));
+
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(1, 5), new ChessPosition(2, 5), null));
+        Assertions.assertEquals(new ChessPosition(2, 5), board.getKingPosition(ChessGame.TeamColor.WHITE));
+        game.unmakeMove();
+        Assertions.assertEquals(new ChessPosition(1, 5), board.getKingPosition(ChessGame.TeamColor.WHITE));
+
+        board.addPiece(new ChessPosition(8, 5), null);
+        Assertions.assertNull(board.getKingPosition(ChessGame.TeamColor.BLACK));
+        Assertions.assertEquals(-1, board.getKingSquare(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    @DisplayName("Piece Lists Match Bitboards Through Make And Unmake")
+    public void pieceListsMatchBitboards() {
+        ChessGame game = Perft.Position.KIWIPETE.createGame();
+        MoveList moves = new MoveList();
+        MoveList replies = new MoveList();
+        game.generateMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            game.makeMove(moves.get(i));
+            assertListsMatch(game.getBoard());
+            game.generateMoves(replies);
+            for (int j = 0; j < replies.size(); j++) {
+                game.makeMove(replies.get(j));
+                assertListsMatch(game.getBoard());
+                game.unmakeMove();
+            }
+            game.unmakeMove();
+        }
+        assertListsMatch(game.getBoard());
+    }
+
+    @Test
+    @DisplayName("Copied Board Has Its Own Piece Lists")
+    public void copiedBoardPieceLists() {
+        ChessBoard original = new ChessBoard();
+        original.resetBoard();
+        ChessBoard copy = new ChessBoard();
+        copy.setBoard(original);
+        copy.addPiece(new ChessPosition(2, 1), null);
+        Assertions.assertEquals(16, original.getPieceCount(ChessGame.TeamColor.WHITE));
+        Assertions.assertEquals(15, copy.getPieceCount(ChessGame.TeamColor.WHITE));
+        assertListsMatch(original);
+        assertListsMatch(copy);
+    }
+
+    @Test
+    @DisplayName("Off Board Positions Are Rejected")
+    public void offBoardPositions() {
+        ChessBoard board = new ChessBoard();
+        ChessPiece pawn = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> board.addPiece(ChessPosition.of(2, 9), pawn));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> board.addPiece(ChessPosition.of(9, 1), pawn));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> board.getPiece(ChessPosition.of(0, 1)));
+        Assertions.assertEquals(0, board.getPieceCount(ChessGame.TeamColor.WHITE));
+
+        ChessGame game = new ChessGame();
+        Assertions.assertThrows(InvalidMoveException.class,
+                () -> game.makeMove(new ChessMove(new ChessPosition(2, 1), new ChessPosition(2, 9), null)));
+    }
+
+    private static void assertListsMatch(ChessBoard board) {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            Set<Integer> squares = new HashSet<>();
+            for (int i = 0; i < board.getPieceCount(color); i++) {
+                int square = board.getPieceSquare(color, i);
+                Assertions.assertEquals(color, board.getPiece(ChessPosition.fromSquare(square)).getTeamColor());
+                squares.add(square);
+            }
+            Assertions.assertEquals(Long.bitCount(board.getTeamOccupancy(color)), squares.size());
+            Assertions.assertEquals(board.getPieceCount(color), squares.size());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class FenTests {
+
+    @ParameterizedTest
+    @EnumSource(Perft.Position.class)
+    @DisplayName("FEN Round Trips")
+    public void roundTrip(Perft.Position position) {
+        Assertions.assertEquals(position.fen(), ChessGame.fromFen(position.fen()).toFen());
+    }
+
+    @Test
+    @DisplayName("Starting Position Matches New Game")
+    public void startingPosition() {
+        ChessGame game = ChessGame.fromFen(Perft.Position.START.fen());
+        ChessGame fresh = new ChessGame();
+        Assertions.assertEquals(fresh.getBoard(), game.getBoard());
+        Assertions.assertEquals(fresh.getZobristKey(), game.getZobristKey());
+        Assertions.assertEquals(Perft.Position.START.fen(), fresh.toFen());
+    }
+
+    @Test
+    @DisplayName("Fields After A Double Step")
+    public void fieldsAfterDoubleStep() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", game.toFen());
+
+        ChessGame loaded = ChessGame.fromFen(game.toFen());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, loaded.getTeamTurn());
+        Assertions.assertEquals(new ChessPosition(3, 5), loaded.getEnPassantPosition());
+        Assertions.assertEquals(game.getZobristKey(), loaded.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("En Passant Setter Checks The Square")
+    public void enPassantSetter() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3pP3/8/8/3P4/4K3 w - - 0 1");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> game.setEnPassantPosition(new ChessPosition(3, 5)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> game.setEnPassantPosition(new ChessPosition(6, 5)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> game.setEnPassantPosition(new ChessPosition(5, 4)));
+        Assertions.assertNull(game.getEnPassantPosition());
+
+        game.setEnPassantPosition(new ChessPosition(6, 4));
+        Assertions.assertEquals("4k3/8/8/3pP3/8/8/3P4/4K3 w - d6 0 1", game.toFen());
+        game.setEnPassantPosition(null);
+        Assertions.assertNull(game.getEnPassantPosition());
+    }
+
+    @Test
+    @DisplayName("Move Clocks Are Optional")
+    public void clocksOptional() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 b - -");
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        Assertions.assertEquals(1, game.getFullmoveNumber());
+        Assertions.assertEquals(0, game.getCastlingRights());
+        Assertions.assertEquals("4k3/8/8/8/8/8/8/4K3 b - - 0 1", game.toFen());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "rnbqkbnr/ppppxppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkz - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+            "4k3/8/8/8/8/8/3P4/4K3 w - e3 0 1",
+            "4k3/8/8/8/4P3/8/8/4K3 w - e6 0 1",
+            "4k3/8/8/8/8/8/3P4/4K3 w - e6 0 1",
+            "4k3/8/4n3/4p3/3P4/8/8/4K3 w - e6 0 1",
+            "4k3/8/8/4p3/3P4/8/8/4K3 b - e6 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 extra",
+    })
+    @DisplayName("Malformed FEN Is Rejected")
+    public void malformed(String fen) {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen));
+    }
+}
@@ -0,0 +1,38 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FlyweightTests {
+
+    @Test
+    @DisplayName("Factories Return Shared Instances")
+    public void factoriesReturnSharedInstances() {
+        Assertions.assertSame(ChessPosition.of(4, 5), ChessPosition.of(4, 5));
+        Assertions.assertSame(ChessPosition.of(4, 5), ChessPosition.fromSquare(new ChessPosition(4, 5).getSquare()));
+        Assertions.assertSame(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK),
+                ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        Assertions.assertSame(ChessMove.of(12, 28, null), ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+    }
+
+    @Test
+    @DisplayName("Shared Instances Equal Constructed Ones")
+    public void sharedInstancesEqualConstructedOnes() {
+        Assertions.assertEquals(new ChessPosition(8, 1), ChessPosition.of(8, 1));
+        Assertions.assertEquals(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN),
+                ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        ChessMove promotion = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.KNIGHT);
+        Assertions.assertEquals(promotion, ChessMove.of(48, 56, ChessPiece.PieceType.KNIGHT));
+        Assertions.assertNotEquals(promotion, ChessMove.of(48, 56, ChessPiece.PieceType.QUEEN));
+    }
+
+    @Test
+    @DisplayName("Off Board Positions Are Still Created")
+    public void offBoardPositions() {
+        ChessPosition offBoard = ChessPosition.of(0, 9);
+        Assertions.assertEquals(0, offBoard.getRow());
+        Assertions.assertEquals(9, offBoard.getColumn());
+        Assertions.assertFalse(offBoard.isOnBoard());
+    }
+}
@@ -0,0 +1,51 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class GameStatusTests {
+
+    @Test
+    @DisplayName("Status After Fool's Mate")
+    public void foolsMate() throws InvalidMoveException {
+        ChessGame game = foolsMateGame();
+        GameStatus white = game.getGameStatus(ChessGame.TeamColor.WHITE);
+        Assertions.assertTrue(white.inCheck());
+        Assertions.assertTrue(white.isCheckmate());
+        Assertions.assertFalse(white.isStalemate());
+        Assertions.assertEquals(0, white.legalMoveCount());
+
+        GameStatus black = game.getGameStatus(ChessGame.TeamColor.BLACK);
+        Assertions.assertFalse(black.inCheck());
+        Assertions.assertFalse(black.isCheckmate());
+        Assertions.assertTrue(black.legalMoveCount() > 0);
+    }
+
+    @Test
+    @DisplayName("Status Is Memoized Until The Position Changes")
+    public void memoizedUntilPositionChanges() throws InvalidMoveException {
+        ChessGame game = foolsMateGame();
+        GameStatus mated = game.getGameStatus(ChessGame.TeamColor.WHITE);
+        Assertions.assertSame(mated, game.getGameStatus(ChessGame.TeamColor.WHITE));
+
+        game.unmakeMove();
+        GameStatus beforeMate = game.getGameStatus(ChessGame.TeamColor.WHITE);
+        Assertions.assertNotSame(mated, beforeMate);
+        Assertions.assertFalse(beforeMate.inCheck());
+        Assertions.assertFalse(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+
+        game.getBoard().addPiece(new ChessPosition(1, 4), null);
+        Assertions.assertNotEquals(beforeMate, game.getGameStatus(ChessGame.TeamColor.WHITE),
+                "Editing the board directly must invalidate the cached status");
+    }
+
+    private static ChessGame foolsMateGame() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 6), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(2, 7), new ChessPosition(4, 7), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+        return game;
+    }
+}
@@ -0,0 +1,85 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class MakeUnmakeTests {
+
+    @Test
+    @DisplayName("Castling Round Trip")
+    public void castling() throws InvalidMoveException {
+        ChessGame game = roundTrip("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 5 12", move(1, 5, 1, 7, null));
+        Assertions.assertEquals(0, game.getCastlingRights() & (ChessGame.WHITE_KINGSIDE | ChessGame.WHITE_QUEENSIDE),
+                "Castling did not clear White's rights");
+        Assertions.assertEquals(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK),
+                game.getBoard().getPiece(new ChessPosition(1, 6)), "Castling did not move the rook");
+    }
+
+    @Test
+    @DisplayName("En Passant Round Trip")
+    public void enPassant() throws InvalidMoveException {
+        ChessGame game = roundTrip("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 30", move(5, 5, 6, 4, null));
+        Assertions.assertNull(game.getBoard().getPiece(new ChessPosition(5, 4)),
+                "En passant did not remove the captured pawn");
+        Assertions.assertNull(game.getEnPassantPosition());
+    }
+
+    @Test
+    @DisplayName("Capturing Promotion Round Trip")
+    public void capturingPromotion() throws InvalidMoveException {
+        ChessGame game = roundTrip("r3k3/1P6/8/8/8/8/8/4K3 w q - 7 41",
+                move(7, 2, 8, 1, ChessPiece.PieceType.QUEEN));
+        Assertions.assertEquals(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN),
+                game.getBoard().getPiece(new ChessPosition(8, 1)));
+        Assertions.assertEquals(0, game.getCastlingRights(), "Capturing the rook did not clear its right");
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+    }
+
+    @Test
+    @DisplayName("Rook Move Removes Castling Right")
+    public void rookMoveRemovesRight() throws InvalidMoveException {
+        ChessGame game = roundTrip("r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 3 20", move(8, 8, 5, 8, null));
+        Assertions.assertEquals(ChessGame.WHITE_KINGSIDE | ChessGame.WHITE_QUEENSIDE | ChessGame.BLACK_QUEENSIDE,
+                game.getCastlingRights());
+        Assertions.assertEquals(4, game.getHalfmoveClock());
+        Assertions.assertEquals(21, game.getFullmoveNumber());
+    }
+
+    /**
+     * Makes the move, checks it took effect, takes it back and checks that the board,
+     * rights, en passant square and clocks are all restored
+     *
+     * @return the game with the move made again, for move-specific checks
+     */
+    private static ChessGame roundTrip(String fen, ChessMove move) throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen(fen);
+        ChessBoard before = copyOf(game.getBoard());
+        long key = game.getZobristKey();
+
+        game.makeMove(move);
+        Assertions.assertNotEquals(fen, game.toFen(), "The move did not change the position");
+        game.unmakeMove();
+
+        Assertions.assertEquals(fen, game.toFen());
+        Assertions.assertEquals(before, game.getBoard());
+        Assertions.assertEquals(key, game.getZobristKey());
+        Assertions.assertEquals(0, game.getMoveHistorySize());
+
+        game.makeMove(move);
+        return game;
+    }
+
+    private static ChessBoard copyOf(ChessBoard board) {
+        ChessBoard copy = new ChessBoard();
+        for (ChessPosition position : board.getAllPositions()) {
+            copy.addPiece(position, board.getPiece(position));
+        }
+        return copy;
+    }
+
+    private static ChessMove move(int fromRow, int fromColumn, int toRow, int toColumn,
+                                  ChessPiece.PieceType promotion) {
+        return new ChessMove(new ChessPosition(fromRow, fromColumn), new ChessPosition(toRow, toColumn), promotion);
+    }
+}
@@ -0,0 +1,134 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+
+import static passoff.chess.TestUtilities.loadBoard;
+
+public class MoveGeneratorTests {
+
+    @Test
+    @DisplayName("Pinned Piece Moves Along Pin Ray")
+    public void pinnedPieceStaysOnRay() {
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |r| | | |
+                | | | | | | | | |
+                | | | | |R| | | |
+                | | | | |K| | | |
+                """));
+
+        Collection<ChessMove> moves = game.validMoves(new ChessPosition(2, 5));
+        Assertions.assertEquals(2, moves.size(), "Pinned rook should only move along the file");
+        for (ChessMove move : moves) {
+            Assertions.assertEquals(5, move.getEndPosition().getColumn());
+        }
+    }
+
+    @Test
+    @DisplayName("En Passant Cannot Expose King On Rank")
+    public void enPassantDiscoveredCheck() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard("""
+                | | | | | | | | |
+                | | |p| | | | | |
+                | | | | | | | | |
+                |K| | |P| | | |r|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | |k| |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        game.makeMove(new ChessMove(new ChessPosition(7, 3), new ChessPosition(5, 3), null));
+
+        ChessMove enPassant = new ChessMove(new ChessPosition(5, 4), new ChessPosition(6, 3), null);
+        Assertions.assertFalse(game.validMoves(new ChessPosition(5, 4)).contains(enPassant),
+                "En passant would leave the king attacked along the rank");
+    }
+
+    @Test
+    @DisplayName("Double Check Allows Only King Moves")
+    public void doubleCheckOnlyKingMoves() {
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | |N| | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |q| | | |R| | |K|
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        Assertions.assertTrue(game.isInCheck(ChessGame.TeamColor.BLACK));
+        for (ChessMove move : game.allValidMoves(ChessGame.TeamColor.BLACK)) {
+            Assertions.assertEquals(new ChessPosition(8, 5), move.getStartPosition(),
+                    "Only the king may move out of double check");
+        }
+    }
+
+    @Test
+    @DisplayName("Square Attacked By Each Piece Kind")
+    public void squareAttacked() {
+        ChessGame game = new ChessGame();
+        game.setBoard(loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |p| | | | |
+                | | | | | | | | |
+                | |n| | | | | | |
+                | | | | |P| | | |
+                |R| | | |K| | |b|
+                """));
+
+        Assertions.assertTrue(game.isSquareAttacked(new ChessPosition(3, 4), ChessGame.TeamColor.WHITE), "Pawn on e2 attacks d3");
+        Assertions.assertFalse(game.isSquareAttacked(new ChessPosition(3, 5), ChessGame.TeamColor.WHITE),
+                "A pawn does not attack the square it pushes to");
+        Assertions.assertTrue(game.isSquareAttacked(new ChessPosition(4, 3), ChessGame.TeamColor.BLACK), "Pawn on d5 attacks c4");
+        Assertions.assertTrue(game.isSquareAttacked(new ChessPosition(1, 3), ChessGame.TeamColor.BLACK), "Knight on b3 attacks c1");
+        Assertions.assertTrue(game.isSquareAttacked(new ChessPosition(2, 7), ChessGame.TeamColor.BLACK), "Bishop on h1 attacks g2");
+        Assertions.assertTrue(game.isSquareAttacked(new ChessPosition(1, 2), ChessGame.TeamColor.WHITE), "Rook on a1 attacks b1");
+        Assertions.assertFalse(game.isSquareAttacked(new ChessPosition(1, 7), ChessGame.TeamColor.WHITE),
+                "King on e1 blocks the rook's ray");
+        Assertions.assertFalse(game.isInCheck(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Captures And Quiets Split The Legal Moves")
+    public void stagedGeneration() {
+        MoveList all = new MoveList();
+        MoveList captures = new MoveList();
+        MoveList quiets = new MoveList();
+        for (Perft.Position position : Perft.Position.values()) {
+            ChessGame game = position.createGame();
+            game.generateMoves(all);
+            game.generateCaptures(captures);
+            game.generateQuiets(quiets);
+            Assertions.assertEquals(all.size(), captures.size() + quiets.size(), position.name());
+            for (int i = 0; i < captures.size(); i++) {
+                int move = captures.get(i);
+                Assertions.assertTrue(Move.isCapture(move) || Move.isPromotion(move), position.name());
+                Assertions.assertEquals(move, game.findMove(move), position.name());
+            }
+            for (int i = 0; i < quiets.size(); i++) {
+                int move = quiets.get(i);
+                Assertions.assertFalse(Move.isCapture(move) || Move.isPromotion(move), position.name());
+                Assertions.assertEquals(move, game.findMove(move & 0x7FFF), position.name());
+            }
+        }
+        ChessGame start = new ChessGame();
+        Assertions.assertEquals(Move.NONE, start.findMove(Move.encode(12, 36, null, Move.NONE)));
+        Assertions.assertEquals(Move.NONE, start.findMove(Move.NONE));
+    }
+}
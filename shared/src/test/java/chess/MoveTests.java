@@ -0,0 +1,50 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+public class MoveTests {
+
+    @Test
+    @DisplayName("Packed Moves Round Trip")
+    public void packedMovesRoundTrip() {
+        int move = Move.encode(52, 61, ChessPiece.PieceType.KNIGHT, Move.CAPTURE);
+        Assertions.assertEquals(52, Move.from(move));
+        Assertions.assertEquals(61, Move.to(move));
+        Assertions.assertEquals(ChessPiece.PieceType.KNIGHT, Move.promotion(move));
+        Assertions.assertTrue(Move.isCapture(move));
+        Assertions.assertFalse(Move.isEnPassant(move));
+        Assertions.assertFalse(Move.isCastle(move));
+        Assertions.assertEquals(ChessMove.of(52, 61, ChessPiece.PieceType.KNIGHT), Move.toChessMove(move));
+        Assertions.assertNull(Move.promotion(Move.encode(4, 6, null, Move.CASTLE)));
+    }
+
+    @Test
+    @DisplayName("Packed Generation Matches Object Moves")
+    public void packedGenerationMatchesObjectMoves() {
+        ChessGame game = Perft.Position.KIWIPETE.createGame();
+        MoveList moves = new MoveList();
+        game.generateMoves(moves);
+        Assertions.assertEquals(new HashSet<>(game.allValidMoves(game.getTeamTurn())),
+                new HashSet<>(moves.toChessMoves()));
+        Assertions.assertEquals(48, moves.size());
+    }
+
+    @Test
+    @DisplayName("Make And Unmake Packed Moves")
+    public void makeAndUnmakePackedMoves() {
+        ChessGame game = Perft.Position.KIWIPETE.createGame();
+        long key = game.getZobristKey();
+        MoveList moves = new MoveList();
+        game.generateMoves(moves);
+        for (int i = 0; i < moves.size(); i++) {
+            game.makeMove(moves.get(i));
+            Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+            game.unmakeMove();
+            Assertions.assertEquals(key, game.getZobristKey());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+public class PerftTests {
+
+    /**
+     * Depth each reference position is checked to; kept shallow enough for a normal test run
+     */
+    private static final int DEPTH = 3;
+
+    @ParameterizedTest
+    @EnumSource(Perft.Position.class)
+    @DisplayName("Perft Node Counts")
+    public void nodeCounts(Perft.Position position) {
+        ChessGame game = position.createGame();
+        for (int depth = 1; depth <= DEPTH; depth++) {
+            Assertions.assertEquals(position.expectedNodes(depth), Perft.perft(game, depth),
+                    position + " perft(" + depth + ")");
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Perft.Position.class)
+    @DisplayName("Perft Restores Position")
+    public void perftRestoresPosition(Perft.Position position) {
+        ChessGame game = position.createGame();
+        long key = game.getZobristKey();
+        ChessBoard board = new ChessBoard();
+        board.setBoard(game.getBoard());
+
+        Perft.perft(game, DEPTH);
+
+        Assertions.assertEquals(board, game.getBoard(), "Board changed after perft");
+        Assertions.assertEquals(key, game.getZobristKey(), "Zobrist key changed after perft");
+    }
+
+    @ParameterizedTest
+    @EnumSource(Perft.Position.class)
+    @DisplayName("Divide Sums To Perft")
+    public void divideSumsToPerft(Perft.Position position) {
+        long total = Perft.divide(position.createGame(), 2).values().stream().mapToLong(Long::longValue).sum();
+        Assertions.assertEquals(position.expectedNodes(2), total);
+    }
+}
@@ -0,0 +1,79 @@
+package chess;
+
+import chess.notation.Uci;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SeeTests {
+
+    @Test
+    @DisplayName("Undefended Piece Is Won Outright")
+    public void undefended() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3r4/8/8/3R4/4K3 w - - 0 1");
+        Assertions.assertEquals(500, see(game, "d2d5"));
+    }
+
+    @Test
+    @DisplayName("Queen Taking A Defended Pawn Loses The Difference")
+    public void defendedPawn() {
+        ChessGame game = ChessGame.fromFen("4k3/2p5/3p4/8/8/8/3Q4/4K3 w - - 0 1");
+        Assertions.assertEquals(100 - 900, see(game, "d2d6"));
+    }
+
+    @Test
+    @DisplayName("Even Trade Nets Nothing")
+    public void evenTrade() {
+        ChessGame game = ChessGame.fromFen("4k3/8/2p5/3p4/4P3/8/8/4K3 w - - 0 1");
+        Assertions.assertEquals(0, see(game, "e4d5"));
+    }
+
+    @Test
+    @DisplayName("X-Ray Attackers Join The Exchange")
+    public void xray() {
+        // Rook takes the defended knight; the queen behind it takes back the recapturing rook
+        ChessGame game = ChessGame.fromFen("3rk3/8/8/3n4/8/8/3R4/3QK3 w - - 0 1");
+        Assertions.assertEquals(320, see(game, "d2d5"));
+        // Without the queen the rook is lost for the knight
+        ChessGame alone = ChessGame.fromFen("3rk3/8/8/3n4/8/8/3R4/4K3 w - - 0 1");
+        Assertions.assertEquals(320 - 500, see(alone, "d2d5"));
+    }
+
+    @Test
+    @DisplayName("Capturer Stops When Recapturing Does Not Pay")
+    public void stopsEarly() {
+        // Pawn takes the knight; a rook recapture would lose the rook to the second pawn
+        ChessGame game = ChessGame.fromFen("4k3/8/3r4/3n4/2P1P3/8/8/4K3 w - - 0 1");
+        Assertions.assertEquals(320, see(game, "c4d5"));
+    }
+
+    @Test
+    @DisplayName("King Cannot Recapture On A Defended Square")
+    public void kingDefence() {
+        ChessGame game = ChessGame.fromFen("8/8/8/8/8/3k4/3p4/3RK1R1 w - - 0 1");
+        Assertions.assertEquals(100, see(game, "d1d2"));
+        ChessGame lone = ChessGame.fromFen("8/8/8/8/8/3k4/3p4/3R3K w - - 0 1");
+        Assertions.assertEquals(100 - 500, see(lone, "d1d2"));
+    }
+
+    @Test
+    @DisplayName("En Passant, Promotion And Quiet Moves")
+    public void specialMoves() {
+        ChessGame enPassant = ChessGame.fromFen("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 2");
+        Assertions.assertEquals(100, see(enPassant, "e5d6"));
+        ChessGame promotion = ChessGame.fromFen("4k3/P7/8/8/8/8/8/4K3 w - - 0 1");
+        Assertions.assertEquals(800, see(promotion, "a7a8q"));
+        ChessGame hanging = ChessGame.fromFen("4k3/8/4p3/8/8/8/8/3QK3 w - - 0 1");
+        Assertions.assertEquals(-900, see(hanging, "d1d5"));
+        Assertions.assertEquals(0, see(hanging, "d1d2"));
+        Assertions.assertEquals(see(hanging, "d1d5"), hanging.see(Uci.decode("d1d5")));
+    }
+
+    private static int see(ChessGame game, String uci) {
+        MoveList moves = new MoveList();
+        game.generateMoves(moves);
+        int move = Uci.decode(moves, uci);
+        Assertions.assertNotEquals(Move.NONE, move, uci);
+        return game.see(move);
+    }
+}
@@ -0,0 +1,121 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ZobristTests {
+
+    @Test
+    @DisplayName("Transposed Positions Share Keys")
+    public void transpositionsShareKeys() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        long start = game.getZobristKey();
+
+        game.makeMove(move(1, 7, 3, 6));
+        Assertions.assertNotEquals(start, game.getZobristKey(), "Moving a knight did not change the key");
+        game.makeMove(move(8, 7, 6, 6));
+        game.makeMove(move(3, 6, 1, 7));
+        game.makeMove(move(6, 6, 8, 7));
+
+        Assertions.assertEquals(start, game.getZobristKey(), "Returning to the start did not restore the key");
+    }
+
+    @Test
+    @DisplayName("Incremental Key Matches Rebuilt Board")
+    public void incrementalKeyMatchesRebuiltBoard() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(1, 2, 3, 3));
+        game.makeMove(move(8, 2, 6, 3));
+
+        ChessBoard rebuilt = new ChessBoard();
+        for (ChessPosition position : game.getBoard().getAllPositions()) {
+            rebuilt.addPiece(position, game.getBoard().getPiece(position));
+        }
+        Assertions.assertEquals(rebuilt.getZobristKey(), game.getBoard().getZobristKey());
+        Assertions.assertEquals(rebuilt.hashCode(), game.getBoard().hashCode());
+    }
+
+    @Test
+    @DisplayName("Side To Move And Castling Change Key")
+    public void stateChangesKey() {
+        ChessGame game = new ChessGame();
+        long start = game.getZobristKey();
+
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertNotEquals(start, game.getZobristKey());
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(start, game.getZobristKey());
+
+        game.setCastlingRights(ChessGame.WHITE_QUEENSIDE);
+        Assertions.assertNotEquals(start, game.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("Unmake Restores Key")
+    public void unmakeRestoresKey() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        long start = game.getZobristKey();
+        game.makeMove(move(1, 2, 3, 1));
+        game.unmakeMove();
+        Assertions.assertEquals(start, game.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("History Keeps Earlier Keys")
+    public void previousKeys() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        long start = game.getZobristKey();
+        game.makeMove(move(1, 7, 3, 6));
+        long afterKnight = game.getZobristKey();
+        game.makeMove(move(8, 7, 6, 6));
+
+        Assertions.assertEquals(afterKnight, game.getPreviousZobristKey(1));
+        Assertions.assertEquals(start, game.getPreviousZobristKey(2));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> game.getPreviousZobristKey(3));
+        game.unmakeMove();
+        Assertions.assertEquals(start, game.getPreviousZobristKey(1));
+    }
+
+    @Test
+    @DisplayName("Copies Keep The History")
+    public void copyKeepsHistory() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        long start = game.getZobristKey();
+        game.makeMove(move(1, 7, 3, 6));
+        ChessGame copy = new ChessGame(game);
+        Assertions.assertEquals(game.toFen(), copy.toFen());
+        Assertions.assertEquals(game.getZobristKey(), copy.getZobristKey());
+        Assertions.assertEquals(start, copy.getPreviousZobristKey(1));
+
+        copy.makeMove(move(8, 7, 6, 6));
+        Assertions.assertEquals(1, game.getMoveHistorySize(), "Moving the copy changed the original");
+        copy.unmakeMove();
+        copy.unmakeMove();
+        Assertions.assertEquals(start, copy.getZobristKey());
+        Assertions.assertEquals(new ChessGame().toFen(), copy.toFen());
+    }
+
+    @Test
+    @DisplayName("Pawn Key Only Follows Pawns")
+    public void pawnKey() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        long start = game.getBoard().getPawnKey();
+        game.makeMove(move(1, 7, 3, 6));
+        Assertions.assertEquals(start, game.getBoard().getPawnKey(), "A knight move changed the pawn key");
+        game.makeMove(move(7, 4, 5, 4));
+        Assertions.assertNotEquals(start, game.getBoard().getPawnKey());
+
+        ChessBoard rebuilt = new ChessBoard();
+        for (ChessPosition position : game.getBoard().getAllPositions()) {
+            rebuilt.addPiece(position, game.getBoard().getPiece(position));
+        }
+        Assertions.assertEquals(rebuilt.getPawnKey(), game.getBoard().getPawnKey());
+        game.unmakeMove();
+        Assertions.assertEquals(start, game.getBoard().getPawnKey());
+    }
+
+    private static ChessMove move(int fromRow, int fromColumn, int toRow, int toColumn) {
+        return new ChessMove(new ChessPosition(fromRow, fromColumn), new ChessPosition(toRow, toColumn), null);
+    }
+}
@@ -0,0 +1,194 @@
+package chess.book;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+import chess.MoveList;
+import chess.notation.Uci;
+import chess.pgn.PgnGame;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class OpeningBookTests {
+
+    @Test
+    @DisplayName("Book Built From Games Weights Moves By Result")
+    public void weightsByResult() throws IOException {
+        OpeningBookWriter writer = new OpeningBookWriter();
+        writer.addGame(game(PgnGame.WHITE_WINS, "e2e4", "e7e5", "g1f3"), 10);
+        writer.addGame(game(PgnGame.DRAW, "e2e4", "c7c5"), 10);
+        writer.addGame(game(PgnGame.BLACK_WINS, "d2d4", "d7d5"), 10);
+        Path file = write(writer);
+        try (OpeningBook book = OpeningBook.open(file)) {
+            ChessGame game = new ChessGame();
+            List<BookMove> moves = book.lookup(game);
+            Assertions.assertEquals(1, moves.size(), "A move only the loser played should be left out");
+            Assertions.assertEquals("e2e4", Uci.encode(moves.get(0).move()));
+            Assertions.assertEquals(3, moves.get(0).weight());
+
+            play(game, "e2e4");
+            moves = book.lookup(game);
+            Assertions.assertEquals(1, moves.size());
+            Assertions.assertEquals("c7c5", Uci.encode(moves.get(0).move()));
+
+            play(game, "a7a6");
+            Assertions.assertTrue(book.lookup(game).isEmpty());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Castling Is Stored As King Takes Rook")
+    public void castling() throws IOException {
+        ChessGame game = ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        OpeningBookWriter writer = new OpeningBookWriter();
+        writer.add(game, move(game, "e1g1"), 5);
+        writer.add(game, move(game, "e1c1"), 2);
+        Path file = write(writer);
+        try (OpeningBook book = OpeningBook.open(file)) {
+            ByteBuffer entries = ByteBuffer.wrap(Files.readAllBytes(file));
+            Assertions.assertEquals(4 << 6 | 7, entries.getShort(8));
+            Assertions.assertEquals(4 << 6, entries.getShort(16 + 8));
+
+            List<BookMove> moves = book.lookup(game);
+            Assertions.assertEquals("e1g1", Uci.encode(moves.get(0).move()));
+            Assertions.assertEquals("e1c1", Uci.encode(moves.get(1).move()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Every Position Of A Large Book Is Found")
+    public void binarySearch() throws IOException {
+        Random random = new Random(24);
+        OpeningBookWriter writer = new OpeningBookWriter();
+        List<String> fens = new ArrayList<>();
+        List<Integer> played = new ArrayList<>();
+        MoveList legal = new MoveList();
+        for (int walk = 0; walk < 40; walk++) {
+            ChessGame game = new ChessGame();
+            for (int ply = 0; ply < 12; ply++) {
+                game.generateMoves(legal);
+                if (legal.isEmpty()) {
+                    break;
+                }
+                int move = legal.get(random.nextInt(legal.size()));
+                writer.add(game, move, 1);
+                fens.add(game.toFen());
+                played.add(move);
+                game.makeMove(move);
+            }
+        }
+        Path file = write(writer);
+        try (OpeningBook book = OpeningBook.open(file)) {
+            Assertions.assertTrue(book.size() >= writer.positions());
+            for (int i = 0; i < fens.size(); i++) {
+                ChessMove expected = Move.toChessMove(played.get(i));
+                List<BookMove> moves = book.lookup(ChessGame.fromFen(fens.get(i)));
+                Assertions.assertTrue(moves.stream().anyMatch(move -> move.move().equals(expected)), fens.get(i));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Picks Follow The Weights")
+    public void pick() throws IOException {
+        ChessGame game = new ChessGame();
+        OpeningBookWriter writer = new OpeningBookWriter();
+        writer.add(game, move(game, "e2e4"), 3);
+        writer.add(game, move(game, "d2d4"), 1);
+        Path file = write(writer);
+        try (OpeningBook book = OpeningBook.open(file)) {
+            Random random = new Random(7);
+            Set<String> seen = new HashSet<>();
+            int kingPawn = 0;
+            for (int i = 0; i < 400; i++) {
+                String move = Uci.encode(book.pick(game, random));
+                seen.add(move);
+                kingPawn += move.equals("e2e4") ? 1 : 0;
+            }
+            Assertions.assertEquals(Set.of("e2e4", "d2d4"), seen);
+            Assertions.assertTrue(kingPawn > 250 && kingPawn < 350, "e2e4 picked " + kingPawn + " times");
+            Assertions.assertNull(book.pick(ChessGame.fromFen("8/8/8/8/8/8/4k3/4K3 w - - 0 1"), random));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Keys Match The Polyglot Reference")
+    public void referenceKeys() {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(0x463b96181691fc9cL, Polyglot.key(game));
+        long[] expected = {
+                0x823c9b50fd114196L, 0x0756b94461c50fb0L, 0x662fafb965db29d4L,
+                0x22a48b5a8e47ff78L, 0x652a607ca3f242c1L, 0x00fdd303c946bdd9L,
+        };
+        String[] moves = {"e2e4", "d7d5", "e4e5", "f7f5", "e1e2", "e8f7"};
+        for (int i = 0; i < moves.length; i++) {
+            play(game, moves[i]);
+            Assertions.assertEquals(expected[i], Polyglot.key(game), "after " + moves[i]);
+        }
+
+        game = new ChessGame();
+        for (String move : new String[]{"a2a4", "b7b5", "h2h4", "b5b4", "c2c4"}) {
+            play(game, move);
+        }
+        Assertions.assertEquals(0x3c8123ea7b067637L, Polyglot.key(game), "en passant file not hashed");
+        play(game, "b4c3");
+        play(game, "a1a3");
+        Assertions.assertEquals(0x5c3f9b829b279560L, Polyglot.key(game));
+    }
+
+    @Test
+    @DisplayName("Truncated Files Are Rejected")
+    public void truncated() throws IOException {
+        Path file = Files.createTempFile("book", ".bin");
+        try {
+            Files.write(file, new byte[20]);
+            Assertions.assertThrows(IOException.class, () -> OpeningBook.open(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static PgnGame game(String result, String... moves) {
+        List<ChessMove> list = new ArrayList<>();
+        for (String move : moves) {
+            list.add(Uci.decode(move));
+        }
+        return new PgnGame(Map.of(), list, result);
+    }
+
+    private static int move(ChessGame game, String uci) {
+        MoveList legal = new MoveList();
+        game.generateMoves(legal);
+        return Uci.decode(legal, uci);
+    }
+
+    private static void play(ChessGame game, String uci) {
+        game.makeMove(move(game, uci));
+    }
+
+    private static Path write(OpeningBookWriter writer) throws IOException {
+        Path file = Files.createTempFile("book", ".bin");
+        writer.write(file);
+        return file;
+    }
+}
@@ -0,0 +1,108 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.MoveList;
+import chess.Perft;
+import chess.notation.Uci;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class EvaluatorTests {
+
+    private final Evaluator evaluator = new ClassicalEvaluator();
+
+    @Test
+    @DisplayName("Starting Position Is Balanced")
+    public void startingPosition() {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(0, evaluator.evaluate(game));
+        Assertions.assertEquals(ChessBoard.MAX_PHASE, game.getBoard().getPhase());
+    }
+
+    @Test
+    @DisplayName("Mirrored Positions Evaluate The Same For The Side To Move")
+    public void colorSymmetry() {
+        ChessGame white = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        ChessGame black = ChessGame.fromFen("r3k2r/pppbbppp/2n2q1P/1P2p3/3pn3/BN2PNP1/P1PPQPB1/R3K2R b KQkq - 0 1");
+        Assertions.assertEquals(evaluator.evaluate(white), evaluator.evaluate(black));
+    }
+
+    @Test
+    @DisplayName("Extra Material Scores For Its Owner")
+    public void material() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/3QK3 w - - 0 1");
+        Assertions.assertTrue(evaluator.evaluate(game) > 800);
+        ChessGame blackToMove = ChessGame.fromFen("4k3/8/8/8/8/8/8/3QK3 b - - 0 1");
+        Assertions.assertEquals(-evaluator.evaluate(game), evaluator.evaluate(blackToMove));
+    }
+
+    @Test
+    @DisplayName("Passed Pawn Beats A Blocked One")
+    public void passedPawn() {
+        ChessGame passed = ChessGame.fromFen("4k3/8/8/8/4P3/8/8/4K3 w - - 0 1");
+        ChessGame blocked = ChessGame.fromFen("4k3/8/4p3/8/4P3/8/8/4K3 w - - 0 1");
+        ChessGame blockedBalance = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+        Assertions.assertTrue(evaluator.evaluate(passed) - evaluator.evaluate(blockedBalance) > 94);
+        Assertions.assertTrue(evaluator.evaluate(blocked) < evaluator.evaluate(passed));
+    }
+
+    @Test
+    @DisplayName("Incremental Sums Match A Fresh Board Through Make And Unmake")
+    public void incrementalSums() {
+        ChessGame game = Perft.Position.PROMOTIONS.createGame();
+        evaluator.attach(game);
+        Random random = new Random(19);
+        MoveList moves = new MoveList();
+        int played = 0;
+        for (int step = 0; step < 400; step++) {
+            game.generateMoves(moves);
+            if (moves.isEmpty() || played >= 40 || (played > 0 && random.nextInt(4) == 0)) {
+                if (played == 0) {
+                    break;
+                }
+                game.unmakeMove();
+                played--;
+            } else {
+                game.makeMove(moves.get(random.nextInt(moves.size())));
+                played++;
+            }
+            assertMatchesFresh(game);
+        }
+    }
+
+    @Test
+    @DisplayName("Copied Board Recomputes Its Sums")
+    public void copiedBoard() {
+        ChessGame source = Perft.Position.KIWIPETE.createGame();
+        ChessGame copy = new ChessGame();
+        evaluator.attach(copy);
+        copy.setBoard(source.getBoard());
+        copy.setTeamTurn(source.getTeamTurn());
+        evaluator.attach(source);
+        Assertions.assertEquals(source.getBoard().getMidgameScore(), copy.getBoard().getMidgameScore());
+        Assertions.assertEquals(source.getBoard().getEndgameScore(), copy.getBoard().getEndgameScore());
+    }
+
+    @Test
+    @DisplayName("Search Accepts Another Evaluator")
+    public void pluggable() {
+        Search search = new Search(new TranspositionTable(1), game -> 0);
+        SearchResult result = search.search(ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"),
+                SearchLimits.depth(3));
+        Assertions.assertEquals("a1a8", Uci.encode(result.bestMove()));
+    }
+
+    private void assertMatchesFresh(ChessGame game) {
+        ChessGame fresh = ChessGame.fromFen(game.toFen());
+        evaluator.attach(fresh);
+        ChessBoard board = game.getBoard();
+        Assertions.assertEquals(fresh.getBoard().getMidgameScore(), board.getMidgameScore(), game.toFen());
+        Assertions.assertEquals(fresh.getBoard().getEndgameScore(), board.getEndgameScore(), game.toFen());
+        Assertions.assertEquals(fresh.getBoard().getPhase(), board.getPhase(), game.toFen());
+        Assertions.assertEquals(evaluator.evaluate(fresh), evaluator.evaluate(game), game.toFen());
+    }
+}
@@ -0,0 +1,101 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.Move;
+import chess.MoveList;
+import chess.Perft;
+import chess.notation.Uci;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class MovePickerTests {
+
+    @Test
+    @DisplayName("Every Legal Move Is Picked Exactly Once")
+    public void picksEachMoveOnce() {
+        MoveHistory history = new MoveHistory();
+        history.clear();
+        ChessGame game = Perft.Position.KIWIPETE.createGame();
+        MoveList legal = new MoveList();
+        game.generateMoves(legal);
+        int hashMove = Uci.decode(legal, "e2a6");
+        int killer = Uci.decode(legal, "a2a3");
+        history.cutoff(3, 4, game.getTeamTurn().ordinal(), Move.NONE, killer, new MoveList());
+        // Illegal here: the second killer must be skipped
+        history.cutoff(3, 4, game.getTeamTurn().ordinal(), Move.NONE, Move.encode(0, 40, null, Move.NONE),
+                new MoveList());
+        history.cutoff(3, 4, game.getTeamTurn().ordinal(), Move.NONE, killer, new MoveList());
+
+        MovePicker picker = new MovePicker();
+        picker.init(game, history, 3, hashMove, Move.NONE);
+        Set<Integer> picked = new HashSet<>();
+        int first = picker.next();
+        Assertions.assertEquals(hashMove, first);
+        picked.add(first);
+        boolean quietSeen = false;
+        int move;
+        while ((move = picker.next()) != Move.NONE) {
+            Assertions.assertTrue(picked.add(move), "Picked twice: " + Move.toChessMove(move));
+            Assertions.assertTrue(legal.contains(Move.toChessMove(move)));
+            boolean quiet = !Move.isCapture(move) && !Move.isPromotion(move);
+            if (quiet && !quietSeen) {
+                Assertions.assertEquals(killer, move, "Killer should lead the quiet moves");
+            }
+            Assertions.assertFalse(quietSeen && !quiet && game.see(move) >= 0, "Good capture after a quiet move");
+            quietSeen |= quiet;
+        }
+        Assertions.assertEquals(legal.size(), picked.size());
+    }
+
+    @Test
+    @DisplayName("Captures Come Most Valuable Victim First")
+    public void capturesByVictim() {
+        ChessGame game = ChessGame.fromFen("4k3/8/2q1r3/3P4/8/8/8/6K1 w - - 0 1");
+        MovePicker picker = new MovePicker();
+        picker.initQuiescence(game, new MoveHistory(), false);
+        Assertions.assertEquals("d5c6", Uci.encode(Move.toChessMove(picker.next())));
+        Assertions.assertEquals("d5e6", Uci.encode(Move.toChessMove(picker.next())));
+        Assertions.assertEquals(Move.NONE, picker.next());
+    }
+
+    @Test
+    @DisplayName("Losing Captures Come Last And Are Dropped In Quiescence")
+    public void losingCaptures() {
+        ChessGame game = ChessGame.fromFen("4k3/2p5/3p4/8/8/8/3Q4/4K3 w - - 0 1");
+        MovePicker picker = new MovePicker();
+        picker.init(game, new MoveHistory(), 0, Move.NONE, Move.NONE);
+        int last = Move.NONE;
+        int move;
+        while ((move = picker.next()) != Move.NONE) {
+            last = move;
+        }
+        Assertions.assertEquals("d2d6", Uci.encode(Move.toChessMove(last)));
+
+        picker.initQuiescence(game, new MoveHistory(), false);
+        Assertions.assertEquals(Move.NONE, picker.next());
+    }
+
+    @Test
+    @DisplayName("History Orders Quiet Moves")
+    public void historyOrdersQuiets() {
+        ChessGame game = new ChessGame();
+        MoveList legal = new MoveList();
+        game.generateMoves(legal);
+        MoveHistory history = new MoveHistory();
+        int favourite = Uci.decode(legal, "g1f3");
+        MoveList tried = new MoveList();
+        tried.add(Uci.decode(legal, "a2a3"));
+        history.cutoff(10, 6, game.getTeamTurn().ordinal(), Move.NONE, favourite, tried);
+        history.newSearch();
+        Assertions.assertTrue(history.history(0, favourite) > 0);
+        Assertions.assertTrue(history.history(0, tried.get(0)) < 0);
+
+        MovePicker picker = new MovePicker();
+        picker.init(game, history, 0, Move.NONE, Move.NONE);
+        Assertions.assertEquals(favourite, picker.next());
+    }
+}
@@ -0,0 +1,101 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.Perft;
+import chess.notation.Uci;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ParallelSearchTests {
+
+    @Test
+    @DisplayName("Helpers Share The Work And Agree On Mate")
+    public void mateWithHelpers() {
+        try (ParallelSearch search = new ParallelSearch(3, new TranspositionTable(8))) {
+            SearchResult result = search.search(ChessGame.fromFen("kbK5/pp6/1P6/8/8/8/8/R7 w - - 0 1"),
+                    SearchLimits.depth(6));
+            Assertions.assertEquals("a1a6", Uci.encode(result.bestMove()));
+            Assertions.assertEquals(3, Search.mateDistance(result.score()));
+            Assertions.assertEquals(3, search.getThreads());
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel Search Restores The Caller's Game")
+    public void restoresGame() {
+        ChessGame game = Perft.Position.KIWIPETE.createGame();
+        String fen = game.toFen();
+        try (ParallelSearch search = new ParallelSearch(2, new TranspositionTable(8))) {
+            SearchResult first = search.search(game, SearchLimits.depth(4));
+            SearchResult second = search.search(game, SearchLimits.nodes(5_000));
+            Assertions.assertNotNull(first.bestMove());
+            Assertions.assertNotNull(second.bestMove());
+        }
+        Assertions.assertEquals(fen, game.toFen());
+    }
+
+    @Test
+    @DisplayName("Helpers See Repetitions Before The Root")
+    public void repetitionBeforeRoot() throws Exception {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/QN2K3 w - - 0 1");
+        for (String move : "b1c3 e8d8 c3b1 d8e8 b1c3 e8d8 c3b1 d8e8 b1c3".split(" ")) {
+            game.makeMove(Uci.decode(move));
+        }
+        TranspositionTable table = new TranspositionTable(8);
+        try (ParallelSearch search = new ParallelSearch(4, table)) {
+            SearchResult result = search.search(game, SearchLimits.depth(5));
+            Assertions.assertEquals("e8d8", Uci.encode(result.bestMove()), "Black did not repeat the position a third time");
+            Assertions.assertEquals(0, result.score());
+        }
+        game.makeMove(Uci.decode("e8d8"));
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(game.getZobristKey()),
+                "A helper scored the repeated position as if it had not occurred before");
+    }
+
+    @Test
+    @DisplayName("Every Thread Searches Under One Table Age")
+    public void oneAgePerSearch() {
+        TranspositionTable table = new TranspositionTable(8);
+        try (ParallelSearch search = new ParallelSearch(4, table)) {
+            int before = table.age();
+            search.search(Perft.Position.KIWIPETE.createGame(), SearchLimits.depth(4));
+            Assertions.assertEquals(before + 1, table.age());
+        }
+        Search single = new Search(table);
+        single.search(new ChessGame(), SearchLimits.depth(2));
+        Assertions.assertEquals(2, table.age());
+    }
+
+    @Test
+    @DisplayName("Each Thread Gets Its Own Evaluator")
+    public void evaluatorPerThread() {
+        List<Evaluator> created = new ArrayList<>();
+        try (ParallelSearch search = new ParallelSearch(3, new TranspositionTable(8), () -> {
+            Evaluator evaluator = new Evaluator() {
+                @Override
+                public int evaluate(ChessGame game) {
+                    return 0;
+                }
+            };
+            synchronized (created) {
+                created.add(evaluator);
+            }
+            return evaluator;
+        })) {
+            SearchResult result = search.search(Perft.Position.KIWIPETE.createGame(), SearchLimits.depth(3));
+            Assertions.assertEquals(0, result.score(), "The supplied evaluator was not used");
+        }
+        Assertions.assertEquals(3, created.size());
+        Assertions.assertEquals(3, created.stream().distinct().count());
+    }
+
+    @Test
+    @DisplayName("Thread Count Must Be Positive")
+    public void threadCount() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ParallelSearch(0, new TranspositionTable(1)));
+    }
+}
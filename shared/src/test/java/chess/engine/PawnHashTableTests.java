@@ -0,0 +1,59 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.Perft;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PawnHashTableTests {
+
+    @Test
+    @DisplayName("Stored Scores Are Found Again")
+    public void storeAndProbe() {
+        PawnHashTable table = new PawnHashTable(1024);
+        Assertions.assertEquals(PawnHashTable.MISS, table.probe(42L));
+        table.store(42L, -123_456);
+        long data = table.probe(42L);
+        Assertions.assertNotEquals(PawnHashTable.MISS, data);
+        Assertions.assertEquals(-123_456, PawnHashTable.score(data));
+        table.store(0L, 0);
+        Assertions.assertEquals(0, PawnHashTable.score(table.probe(0L)));
+        Assertions.assertEquals(3, table.probes());
+        Assertions.assertEquals(2, table.hits());
+    }
+
+    @Test
+    @DisplayName("Colliding Structures Overwrite Each Other")
+    public void lossy() {
+        PawnHashTable table = new PawnHashTable(1);
+        Assertions.assertEquals(1, table.capacity());
+        table.store(1L, 10);
+        table.store(2L, 20);
+        Assertions.assertEquals(PawnHashTable.MISS, table.probe(1L));
+        Assertions.assertEquals(20, PawnHashTable.score(table.probe(2L)));
+        table.clear();
+        Assertions.assertEquals(PawnHashTable.MISS, table.probe(2L));
+    }
+
+    @Test
+    @DisplayName("Cached Pawn Scores Match Fresh Evaluation")
+    public void cachedMatchesFresh() {
+        ClassicalEvaluator cached = new ClassicalEvaluator();
+        ChessGame game = Perft.Position.KIWIPETE.createGame();
+        int first = cached.evaluate(game);
+        Assertions.assertEquals(first, cached.evaluate(game));
+        Assertions.assertEquals(first, new ClassicalEvaluator().evaluate(game));
+        Assertions.assertEquals(1, cached.getPawnHashTable().hits());
+    }
+
+    @Test
+    @DisplayName("Search Mostly Hits The Pawn Table")
+    public void searchHitRate() {
+        ClassicalEvaluator evaluator = new ClassicalEvaluator();
+        new Search(new TranspositionTable(4), evaluator).search(Perft.Position.KIWIPETE.createGame(),
+                SearchLimits.depth(4));
+        Assertions.assertTrue(evaluator.getPawnHashTable().hitRate() > 0.9,
+                "Hit rate " + evaluator.getPawnHashTable().hitRate());
+    }
+}
@@ -0,0 +1,144 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+import chess.Perft;
+import chess.notation.Uci;
+import chess.tablebase.Material;
+import chess.tablebase.Tablebase;
+import chess.tablebase.TablebaseGenerator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SearchTests {
+
+    @Test
+    @DisplayName("Finds Mate In One")
+    public void mateInOne() {
+        SearchResult result = new Search().search(ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"),
+                SearchLimits.depth(4));
+        Assertions.assertEquals("a1a8", Uci.encode(result.bestMove()));
+        Assertions.assertTrue(Search.isMateScore(result.score()));
+        Assertions.assertEquals(1, Search.mateDistance(result.score()));
+    }
+
+    @Test
+    @DisplayName("Finds Mate In Two With A Quiet Sacrifice")
+    public void mateInTwo() {
+        SearchResult result = new Search().search(ChessGame.fromFen("kbK5/pp6/1P6/8/8/8/8/R7 w - - 0 1"),
+                SearchLimits.depth(5));
+        Assertions.assertEquals("a1a6", Uci.encode(result.bestMove()));
+        Assertions.assertEquals(3, Search.mateDistance(result.score()));
+        Assertions.assertEquals(3, result.principalVariation().size());
+    }
+
+    @Test
+    @DisplayName("Scores Tablebase Positions Exactly")
+    public void tablebase() {
+        Tablebase tablebase = new Tablebase();
+        new TablebaseGenerator(tablebase).generate(Material.parse("KRvK"));
+        ChessGame game = ChessGame.fromFen("8/8/8/4k3/8/8/8/R3K3 w - - 0 1");
+        int distance = tablebase.probe(game).distance();
+        Search search = new Search();
+        search.setTablebase(tablebase);
+        SearchResult result = search.search(game, SearchLimits.depth(2));
+        Assertions.assertEquals(Search.TABLEBASE_WIN - distance, result.score());
+        Assertions.assertFalse(Search.isMateScore(result.score()));
+    }
+
+    @Test
+    @DisplayName("Tablebase Scores Transpose To Other Plies")
+    public void tablebaseTransposition() {
+        TranspositionTable table = new TranspositionTable(1);
+        int distance = Tablebase.MAX_DISTANCE;
+        table.store(1L, Move.NONE, Search.scoreToTable(Search.TABLEBASE_WIN - 3 - distance, 3), 4,
+                TranspositionTable.EXACT);
+        table.store(2L, Move.NONE, Search.scoreToTable(-(Search.TABLEBASE_WIN - 9 - distance), 9), 4,
+                TranspositionTable.EXACT);
+        Assertions.assertEquals(Search.TABLEBASE_WIN - 9 - distance,
+                Search.scoreFromTable(TranspositionTable.score(table.probe(1L)), 9));
+        Assertions.assertEquals(-(Search.TABLEBASE_WIN - 3 - distance),
+                Search.scoreFromTable(TranspositionTable.score(table.probe(2L)), 3));
+        Assertions.assertEquals(500, Search.scoreFromTable(Search.scoreToTable(500, 3), 9));
+    }
+
+    @Test
+    @DisplayName("Takes A Hanging Queen")
+    public void hangingQueen() {
+        SearchResult result = new Search().search(ChessGame.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1"),
+                SearchLimits.depth(3));
+        Assertions.assertEquals("d2d5", Uci.encode(result.bestMove()));
+        Assertions.assertTrue(result.score() > 300);
+    }
+
+    @Test
+    @DisplayName("Stalemated Side Has No Best Move")
+    public void noLegalMoves() {
+        SearchResult result = new Search().search(ChessGame.fromFen("k7/2Q5/1K6/8/8/8/8/8 b - - 0 1"),
+                SearchLimits.depth(3));
+        Assertions.assertNull(result.bestMove());
+        Assertions.assertEquals(0, result.score());
+    }
+
+    @Test
+    @DisplayName("Repetitions Before The Root Count Toward A Draw")
+    public void repetitionBeforeRoot() throws Exception {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/QN2K3 w - - 0 1");
+        for (String move : "b1c3 e8d8 c3b1 d8e8 b1c3 e8d8 c3b1 d8e8 b1c3".split(" ")) {
+            game.makeMove(Uci.decode(move));
+        }
+        SearchResult result = new Search().search(game, SearchLimits.depth(3));
+        Assertions.assertEquals("e8d8", Uci.encode(result.bestMove()), "Black did not repeat the position a third time");
+        Assertions.assertEquals(0, result.score());
+    }
+
+    @Test
+    @DisplayName("Node Limit Stops The Search And Restores The Game")
+    public void nodeLimit() {
+        ChessGame game = Perft.Position.KIWIPETE.createGame();
+        String fen = game.toFen();
+        long key = game.getZobristKey();
+        SearchResult result = new Search().search(game, SearchLimits.nodes(20_000));
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertTrue(result.nodes() <= 20_000);
+        Assertions.assertEquals(fen, game.toFen());
+        Assertions.assertEquals(key, game.getZobristKey());
+        Assertions.assertEquals(0, game.getMoveHistorySize());
+    }
+
+    @Test
+    @DisplayName("Tiny Node Limit Still Yields A Searched Move")
+    public void tinyNodeLimit() throws Exception {
+        ChessGame game = Perft.Position.START.createGame();
+        List<SearchResult> iterations = new ArrayList<>();
+        SearchResult result = new Search().search(game, SearchLimits.nodes(1), iterations::add);
+        Assertions.assertTrue(iterations.isEmpty(), "An unfinished iteration was reported as complete");
+        Assertions.assertEquals(0, result.depth());
+        Assertions.assertNotNull(result.bestMove());
+        game.makeMove(result.bestMove());
+    }
+
+    @Test
+    @DisplayName("Search Takes The Evaluator's Tables Off The Board")
+    public void detachesEvaluator() {
+        ChessGame game = Perft.Position.KIWIPETE.createGame();
+        new Search().search(game, SearchLimits.depth(3));
+        Assertions.assertNull(game.getBoard().getPieceSquareTable());
+    }
+
+    @Test
+    @DisplayName("Principal Variation Is Playable")
+    public void principalVariationIsLegal() throws Exception {
+        ChessGame game = Perft.Position.START.createGame();
+        SearchResult result = new Search().search(game, SearchLimits.depth(4));
+        Assertions.assertEquals(result.bestMove(), result.principalVariation().get(0));
+        for (ChessMove move : result.principalVariation()) {
+            game.makeMove(move);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package chess.engine;
+
+import chess.Move;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TranspositionTableTests {
+
+    @Test
+    @DisplayName("Stored Fields Round Trip")
+    public void roundTrip() {
+        TranspositionTable table = new TranspositionTable(1);
+        int move = Move.encode(12, 28, null, Move.CAPTURE);
+        table.store(0x1234_5678_9ABCL, move, -31_950, 17, TranspositionTable.UPPER);
+
+        long data = table.probe(0x1234_5678_9ABCL);
+        Assertions.assertNotEquals(TranspositionTable.MISS, data);
+        Assertions.assertEquals(move, TranspositionTable.move(data));
+        Assertions.assertEquals(-31_950, TranspositionTable.score(data));
+        Assertions.assertEquals(17, TranspositionTable.depth(data));
+        Assertions.assertEquals(TranspositionTable.UPPER, TranspositionTable.bound(data));
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(0x1234_5678_9ABDL));
+    }
+
+    @Test
+    @DisplayName("Size Is A Power Of Two Within The Budget")
+    public void size() {
+        TranspositionTable table = new TranspositionTable(3);
+        Assertions.assertEquals(Integer.bitCount(table.capacity()), 1);
+        Assertions.assertTrue(table.capacity() * 16L <= 3 << 20);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    }
+
+    @Test
+    @DisplayName("Depth Preferred Replacement Keeps The Deeper Entry")
+    public void depthPreferred() {
+        TranspositionTable table = new TranspositionTable(1);
+        long buckets = table.capacity() / 2;
+        long deep = 5;
+        long shallow = deep + buckets;
+        long incoming = deep + 2 * buckets;
+        table.store(deep, Move.NONE, 10, 12, TranspositionTable.EXACT);
+        table.store(shallow, Move.NONE, 20, 2, TranspositionTable.EXACT);
+        table.store(incoming, Move.NONE, 30, 4, TranspositionTable.EXACT);
+        Assertions.assertNotEquals(TranspositionTable.MISS, table.probe(deep));
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(shallow));
+        Assertions.assertNotEquals(TranspositionTable.MISS, table.probe(incoming));
+
+        table.clear();
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(deep));
+    }
+
+    @Test
+    @DisplayName("Concurrent Writers Never Produce Mismatched Entries")
+    public void concurrentAccess() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.Replacement.ALWAYS);
+        long buckets = table.capacity() / 2;
+        // Many keys sharing a few buckets, so threads constantly overwrite each other
+        long[] keys = new long[64];
+        SplittableRandom keyRandom = new SplittableRandom(42);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (keyRandom.nextLong() & ~(buckets - 1)) | (i % 4);
+        }
+        AtomicInteger mismatches = new AtomicInteger();
+        AtomicInteger hits = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 200_000; i++) {
+                    long key = keys[random.nextInt(keys.length)];
+                    long data = table.probe(key);
+                    if (data != TranspositionTable.MISS) {
+                        hits.incrementAndGet();
+                        if (TranspositionTable.score(data) != expectedScore(key)) {
+                            mismatches.incrementAndGet();
+                        }
+                    }
+                    table.store(key, Move.NONE, expectedScore(key), 1, TranspositionTable.EXACT);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertTrue(hits.get() > 0);
+        Assertions.assertEquals(0, mismatches.get());
+    }
+
+    private static int expectedScore(long key) {
+        return (int) ((key >>> 40) % 30_000);
+    }
+}
@@ -0,0 +1,98 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Move;
+import chess.MoveList;
+import chess.Perft;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class NotationTests {
+
+    @Test
+    @DisplayName("UCI Encodes And Decodes")
+    public void uci() {
+        ChessMove promotion = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 2), ChessPiece.PieceType.KNIGHT);
+        Assertions.assertEquals("a7b8n", Uci.encode(promotion));
+        Assertions.assertEquals(promotion, Uci.decode("a7b8n"));
+        Assertions.assertEquals("e2e4", Uci.encode(Move.encode(12, 28, null, 0), new StringBuilder()).toString());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Uci.decode("e2e9"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Uci.decode("e7e8x"));
+
+        ChessGame game = Perft.Position.KIWIPETE.createGame();
+        MoveList legal = new MoveList();
+        game.generateMoves(legal);
+        int castle = Uci.decode(legal, "e1g1");
+        Assertions.assertTrue(Move.isCastle(castle));
+        Assertions.assertEquals(Move.NONE, Uci.decode(legal, "e1e3"));
+    }
+
+    @Test
+    @DisplayName("SAN Disambiguates By File, Rank And Square")
+    public void sanDisambiguation() {
+        ChessGame game = ChessGame.fromFen("8/8/k7/8/1Q5Q/8/8/1K5Q w - - 0 1");
+        Assertions.assertEquals("Qh4e1", San.encode(game, move(4, 8, 1, 5)),
+                "Three queens reach e1: both file and rank are needed");
+        Assertions.assertEquals("Qbd4", San.encode(game, move(4, 2, 4, 4)));
+        Assertions.assertEquals("Q1h2", San.encode(game, move(1, 8, 2, 8)));
+
+        ChessGame knights = ChessGame.fromFen("4k3/8/8/8/8/8/3K4/1N3N2 w - - 0 1");
+        Assertions.assertEquals("Nbd2", San.encode(ChessGame.fromFen("4k3/8/8/8/8/8/8/1N2KN2 w - - 0 1"), move(1, 2, 2, 4)));
+        Assertions.assertEquals("Nc3", San.encode(knights, move(1, 2, 3, 3)));
+    }
+
+    @Test
+    @DisplayName("SAN Suffixes And Special Moves")
+    public void sanSpecialMoves() {
+        ChessGame game = ChessGame.fromFen("r3k3/1P6/8/3pP3/8/8/8/R3K2R w KQq d6 0 1");
+        Assertions.assertEquals("O-O", San.encode(game, move(1, 5, 1, 7)));
+        Assertions.assertEquals("O-O-O", San.encode(game, move(1, 5, 1, 3)));
+        Assertions.assertEquals("exd6", San.encode(game, move(5, 5, 6, 4)));
+        Assertions.assertEquals("bxa8=Q+", San.encode(game,
+                new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN)));
+        Assertions.assertEquals("Ra7", San.encode(game, move(1, 1, 7, 1)));
+
+        ChessGame mate = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        Assertions.assertEquals("Ra8#", San.encode(mate, move(1, 1, 8, 1)));
+    }
+
+    @Test
+    @DisplayName("SAN Decodes Loose Spellings")
+    public void sanDecode() {
+        ChessGame game = ChessGame.fromFen("r3k3/1P6/8/3pP3/8/8/8/R3K2R w KQq d6 0 1");
+        Assertions.assertEquals(move(1, 5, 1, 3), San.decode(game, "0-0-0"));
+        Assertions.assertEquals(new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 1), ChessPiece.PieceType.KNIGHT),
+                San.decode(game, "bxa8N"));
+        Assertions.assertEquals(move(5, 5, 6, 4), San.decode(game, "ed6!?"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> San.decode(game, "Nf3"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> San.decode(game, "R"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Perft.Position.class)
+    @DisplayName("Every Legal Move Round Trips Through SAN")
+    public void sanRoundTrip(Perft.Position position) {
+        ChessGame game = position.createGame();
+        MoveList legal = new MoveList();
+        game.generateMoves(legal);
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < legal.size(); i++) {
+            String san = San.encode(game, legal, legal.get(i), new StringBuilder()).toString();
+            Assertions.assertTrue(seen.add(san), "Duplicate SAN " + san);
+            Assertions.assertEquals(legal.get(i), San.decode(game, legal, san), san);
+        }
+    }
+
+    private static ChessMove move(int fromRow, int fromColumn, int toRow, int toColumn) {
+        return new ChessMove(new ChessPosition(fromRow, fromColumn), new ChessPosition(toRow, toColumn), null);
+    }
+}
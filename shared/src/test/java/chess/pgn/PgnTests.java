@@ -0,0 +1,174 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.Pipe;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PgnTests {
+
+    private static final String OPERA_GAME = """
+            [Event "Paris"]
+            [Site "Paris FRA"]
+            [Date "1858.??.??"]
+            [Round "?"]
+            [White "Paul Morphy"]
+            [Black "Duke Karl / Count Isouard"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Nf3 d6 3. d4 Bg4 {This is a weak move already.} 4. dxe5 Bxf3
+            5. Qxf3 dxe5 6. Bc4 Nf6 7. Qb3 $1 Qe7 8. Nc3 (8. Qxb7 Qb4+ 9. Qxb4 Bxb4+)
+            8... c6 9. Bg5 b5 10. Nxb5! cxb5 11. Bxb5+ Nbd7 12. O-O-O Rd8
+            13. Rxd7 Rxd7 14. Rd1 Qe6 15. Bxd7+ Nxd7 16. Qb8+ Nxb8 17. Rd8# 1-0
+
+            """;
+
+    @Test
+    @DisplayName("Read Annotated Game")
+    public void readAnnotatedGame() throws IOException, InvalidMoveException {
+        PgnReader reader = reader(OPERA_GAME + OPERA_GAME);
+        PgnGame game = reader.next();
+        Assertions.assertEquals("Paul Morphy", game.getTag("White"));
+        Assertions.assertEquals(PgnGame.WHITE_WINS, game.getResult());
+        Assertions.assertEquals(33, game.getMoves().size());
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 5), new ChessPosition(1, 3), null),
+                game.getMoves().get(22), "O-O-O should be the king's move");
+
+        ChessGame end = game.replay();
+        Assertions.assertTrue(end.isInCheckmate(ChessGame.TeamColor.BLACK));
+        Assertions.assertNotNull(reader.next());
+        Assertions.assertNull(reader.next());
+    }
+
+    @Test
+    @DisplayName("Write Then Read Round Trip")
+    public void writeThenRead() throws IOException {
+        PgnGame original = reader(OPERA_GAME).next();
+        String written = write(original);
+        Assertions.assertTrue(written.contains("10. Nxb5 cxb5 11. Bxb5+ Nbd7 12. O-O-O Rd8"), written);
+        Assertions.assertTrue(written.endsWith("17. Rd8# 1-0\n\n"), written);
+        for (String line : written.split("\n")) {
+            Assertions.assertTrue(line.length() < 80, "Line too long: " + line);
+        }
+
+        PgnGame reread = reader(written).next();
+        Assertions.assertEquals(original.getMoves(), reread.getMoves());
+        Assertions.assertEquals(original.getTags(), reread.getTags());
+    }
+
+    @Test
+    @DisplayName("Game From A FEN Tag Starting With Black")
+    public void fenStartWithBlack() throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("FEN", "4k3/8/8/8/8/8/5p2/R3K3 b Q - 0 30");
+        tags.put("Annotator", "Quote \"and\" backslash \\");
+        List<ChessMove> moves = List.of(
+                new ChessMove(new ChessPosition(2, 6), new ChessPosition(1, 6), ChessPiece.PieceType.QUEEN),
+                new ChessMove(new ChessPosition(1, 5), new ChessPosition(1, 6), null));
+        String written = write(new PgnGame(tags, moves, PgnGame.UNKNOWN));
+        Assertions.assertTrue(written.contains("30... f1=Q+ 31. Kxf1 *"), written);
+
+        PgnGame reread = reader(written).next();
+        Assertions.assertEquals(moves, reread.getMoves());
+        Assertions.assertEquals(tags.get("Annotator"), reread.getTag("Annotator"));
+    }
+
+    @Test
+    @DisplayName("Illegal Move Reports Its Line")
+    public void illegalMove() {
+        PgnFormatException error = Assertions.assertThrows(PgnFormatException.class,
+                () -> reader("[Event \"?\"]\n\n1. e4 e5\n2. Ke3 *\n").next());
+        Assertions.assertEquals(4, error.getLine());
+    }
+
+    @Test
+    @DisplayName("Non-Blocking Input Is Rejected Instead Of Polled")
+    public void nonBlockingInput() throws IOException {
+        ReadableByteChannel idle = new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer dst) {
+                return 0;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Assertions.assertThrows(IOException.class, () -> new PgnReader(idle).next());
+
+        Pipe pipe = Pipe.open();
+        try (Pipe.SourceChannel source = pipe.source(); Pipe.SinkChannel sink = pipe.sink()) {
+            source.configureBlocking(false);
+            Assertions.assertThrows(IllegalArgumentException.class, () -> new PgnReader(source));
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel Read Sees Every Game Once")
+    public void parallelRead() throws IOException {
+        String foolsMate = "[Event \"Short\"]\n[Result \"0-1\"]\n\n1. f3 e5 2. g4 Qh4# 0-1\n\n";
+        Path file = Files.createTempFile("games", ".pgn");
+        int pairs = 6_000;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            PgnWriter writer = new PgnWriter(channel);
+            PgnGame opera = reader(OPERA_GAME).next();
+            PgnGame mate = reader(foolsMate).next();
+            for (int i = 0; i < pairs; i++) {
+                writer.write(opera);
+                writer.write(mate);
+            }
+            writer.flush();
+        }
+        try {
+            Assertions.assertTrue(Files.size(file) > 2 << 20, "File should span several chunks");
+            AtomicInteger operas = new AtomicInteger();
+            AtomicInteger mates = new AtomicInteger();
+            PgnReader.readParallel(file, new ForkJoinPool(4),
+                    game -> (game.getMoves().size() == 4 ? mates : operas).incrementAndGet());
+            Assertions.assertEquals(pairs, operas.get());
+            Assertions.assertEquals(pairs, mates.get());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static PgnReader reader(String pgn) {
+        return new PgnReader(Channels.newChannel(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static String write(PgnGame game) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PgnWriter writer = new PgnWriter(Channels.newChannel(out));
+        writer.write(game);
+        writer.flush();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
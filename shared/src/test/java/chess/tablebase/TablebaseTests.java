@@ -0,0 +1,283 @@
+package chess.tablebase;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.MoveList;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+
+public class TablebaseTests {
+
+    private static Tablebase shared;
+    private static Tablebase fourPieces;
+
+    /**
+     * Three-piece tables take about a second to generate, so the tests share one set
+     */
+    private static synchronized Tablebase tablebase() {
+        if (shared == null) {
+            shared = new Tablebase();
+            TablebaseGenerator generator = new TablebaseGenerator(shared);
+            generator.generate(Material.parse("KQvK"));
+            generator.generate(Material.parse("KRvK"));
+            generator.generate(Material.parse("KPvK"));
+        }
+        return shared;
+    }
+
+    /**
+     * A pawnless four-piece table and its successors, which take several seconds to generate
+     */
+    private static synchronized Tablebase fourPieces() {
+        if (fourPieces == null) {
+            fourPieces = new Tablebase();
+            new TablebaseGenerator(fourPieces).generate(Material.parse("KBvKN"));
+        }
+        return fourPieces;
+    }
+
+    @Test
+    @DisplayName("Material Names Are Canonical")
+    public void materialNames() {
+        Assertions.assertEquals("KQvK", Material.parse("KvKQ").canonical().toString());
+        Assertions.assertEquals("KQvKR", Material.parse("KRvKQ").canonical().toString());
+        Assertions.assertEquals("KRPvKR", Material.parse("KPRvKR").toString());
+        Assertions.assertTrue(Material.parse("KPvKP").isCanonical());
+        Assertions.assertEquals(4, Material.parse("KQvKR").pieceCount());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Material.parse("KQK"));
+        Assertions.assertEquals(Material.parse("KNvKB").signature(),
+                Material.mirrorSignature(Material.parse("KBvKN").signature()));
+        Assertions.assertEquals(List.of(Material.parse("KQvK"), Material.parse("KRvK"), Material.parse("KBvK"),
+                Material.parse("KNvK")), Material.parse("KPvK").successors());
+    }
+
+    @Test
+    @DisplayName("Longest Mates Match The Known Values")
+    public void longestMates() {
+        Tablebase tablebase = tablebase();
+        Assertions.assertEquals(20, tablebase.getTable(Material.parse("KQvK")).getMaxDistance());
+        Assertions.assertEquals(32, tablebase.getTable(Material.parse("KRvK")).getMaxDistance());
+        Assertions.assertEquals(0, tablebase.getTable(Material.parse("KNvK")).getMaxDistance());
+        Assertions.assertEquals(0, tablebase.getTable(Material.parse("KBvK")).getMaxDistance());
+        Assertions.assertEquals(3, tablebase.getMaxPieces());
+    }
+
+    @Test
+    @DisplayName("Probes Mates, Stalemates And Either Colouring")
+    public void probe() {
+        Tablebase tablebase = tablebase();
+        assertResult(tablebase, "k7/8/1K6/8/8/8/8/6Q1 w - - 0 1", TablebaseResult.Outcome.WIN, 1);
+        assertResult(tablebase, "6q1/8/8/8/8/1k6/8/K7 b - - 0 1", TablebaseResult.Outcome.WIN, 1);
+        assertResult(tablebase, "k5Q1/8/1K6/8/8/8/8/8 b - - 0 1", TablebaseResult.Outcome.LOSS, 0);
+        assertResult(tablebase, "k7/8/1Q6/2K5/8/8/8/8 b - - 0 1", TablebaseResult.Outcome.DRAW, 0);
+        assertResult(tablebase, "8/8/8/3k4/8/8/8/3KN3 w - - 0 1", TablebaseResult.Outcome.DRAW, 0);
+        assertResult(tablebase, "8/8/8/3k4/8/8/8/3K4 b - - 0 1", TablebaseResult.Outcome.DRAW, 0);
+        assertResult(tablebase, "8/4P3/8/8/8/8/k7/4K3 w - - 0 1", TablebaseResult.Outcome.WIN, 13);
+        assertResult(tablebase, "8/8/8/8/8/2k5/1P6/K7 w - - 0 1", TablebaseResult.Outcome.DRAW, 0);
+    }
+
+    @Test
+    @DisplayName("Four-Piece Mates Match The Known Values")
+    public void fourPieceMates() throws InvalidMoveException {
+        Tablebase tablebase = fourPieces();
+        // The longest mate with bishop against knight, for either side, is mate in one
+        Assertions.assertEquals(1, tablebase.getTable(Material.parse("KBvKN")).getMaxDistance());
+        Assertions.assertEquals(4, tablebase.getMaxPieces());
+        assertResult(tablebase, "knB5/8/1K6/8/8/8/8/8 w - - 0 1", TablebaseResult.Outcome.WIN, 1);
+        assertResult(tablebase, "8/8/8/8/8/1k6/8/KNb5 b - - 0 1", TablebaseResult.Outcome.WIN, 1);
+        assertResult(tablebase, "knB5/8/1K6/8/8/8/8/8 b - - 0 1", TablebaseResult.Outcome.DRAW, 0);
+        assertResult(tablebase, "8/8/3k4/8/3N4/8/3K4/5b2 w - - 0 1", TablebaseResult.Outcome.DRAW, 0);
+        ChessGame game = ChessGame.fromFen("knB5/8/1K6/8/8/8/8/8 w - - 0 1");
+        game.makeMove(tablebase.bestMove(game));
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    @DisplayName("Uncovered Positions Are Not Probed")
+    public void uncovered() {
+        Tablebase tablebase = tablebase();
+        Assertions.assertNull(tablebase.probe(ChessGame.fromFen("4k3/8/8/8/8/8/8/4K2R w K - 0 1")));
+        Assertions.assertNull(tablebase.probe(ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K2R w - - 0 1")));
+        Assertions.assertNull(tablebase.probe(new ChessGame()));
+        Assertions.assertNotNull(tablebase.probe(ChessGame.fromFen("4k3/8/8/8/8/8/8/4K2R w - - 0 1")));
+    }
+
+    @Test
+    @DisplayName("Every Result Follows From The Results After Each Move")
+    public void consistency() {
+        Tablebase tablebase = tablebase();
+        Random random = new Random(25);
+        for (String name : List.of("KQvK", "KRvK", "KPvK", "KBvK")) {
+            Material material = Material.parse(name);
+            for (int i = 0; i < 500; i++) {
+                ChessGame game = randomGame(material, random);
+                Assertions.assertEquals(backedUp(tablebase, game), tablebase.probe(game), game.toFen());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Four-Piece Results Follow From The Results After Each Move")
+    public void fourPieceConsistency() {
+        Tablebase tablebase = fourPieces();
+        Random random = new Random(4);
+        Material material = Material.parse("KBvKN");
+        for (int i = 0; i < 2000; i++) {
+            ChessGame game = randomGame(material, random);
+            Assertions.assertEquals(backedUp(tablebase, game), tablebase.probe(game), game.toFen());
+        }
+    }
+
+    @Test
+    @DisplayName("Best Moves Mate In The Distance Probed")
+    public void bestMoves() throws InvalidMoveException {
+        Tablebase tablebase = tablebase();
+        for (String fen : List.of("8/8/8/4k3/8/8/8/R3K3 w - - 0 1", "8/8/8/8/8/8/1P6/K6k w - - 0 1",
+                "8/8/8/8/3k4/8/8/4K2Q b - - 0 1")) {
+            ChessGame game = ChessGame.fromFen(fen);
+            TablebaseResult start = tablebase.probe(game);
+            ChessGame.TeamColor winner = start.outcome() == TablebaseResult.Outcome.WIN
+                    ? game.getTeamTurn() : opponent(game.getTeamTurn());
+            for (int ply = 0; ply < start.distance(); ply++) {
+                game.makeMove(tablebase.bestMove(game));
+            }
+            Assertions.assertTrue(game.isInCheckmate(opponent(winner)), fen);
+            Assertions.assertNull(tablebase.bestMove(game));
+        }
+    }
+
+    @Test
+    @DisplayName("Tables Survive A Round Trip Through Files")
+    public void files() throws IOException {
+        Path directory = Files.createTempDirectory("tables");
+        try {
+            for (EndgameTable table : tablebase().getTables()) {
+                table.write(directory.resolve(table.getMaterial() + EndgameTable.FILE_SUFFIX));
+            }
+            Tablebase read = Tablebase.open(directory);
+            Assertions.assertEquals(tablebase().getTables().size(), read.getTables().size());
+            EndgameTable original = tablebase().getTable(Material.parse("KRvK"));
+            EndgameTable copy = read.getTable(Material.parse("KRvK"));
+            Assertions.assertEquals(original.getBitsPerPosition(), copy.getBitsPerPosition());
+            Assertions.assertEquals(original.getMaxDistance(), copy.getMaxDistance());
+            for (int position = 0; position < original.index().size(); position++) {
+                Assertions.assertEquals(original.code(position), copy.code(position));
+            }
+            Path table = directory.resolve("KQvK" + EndgameTable.FILE_SUFFIX);
+            Files.write(table, Files.readAllBytes(table), StandardOpenOption.APPEND);
+            Assertions.assertThrows(IOException.class, () -> EndgameTable.read(table));
+        } finally {
+            try (var files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    @DisplayName("Generation Is Limited To Small Endings")
+    public void limits() {
+        TablebaseGenerator generator = new TablebaseGenerator(new Tablebase());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> generator.generate(Material.parse("KQRvKR")));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> generator.generate(Material.parse("KvK")));
+        Material material = Material.parse("KRvK");
+        short[] codes = new short[new TableIndex(material).size()];
+        codes[0] = Tablebase.MAX_DISTANCE + 3;
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new Tablebase().add(EndgameTable.pack(material, codes)));
+    }
+
+    private static void assertResult(Tablebase tablebase, String fen, TablebaseResult.Outcome outcome, int distance) {
+        Assertions.assertEquals(new TablebaseResult(outcome, distance), tablebase.probe(ChessGame.fromFen(fen)), fen);
+    }
+
+    /**
+     * @return the result of a position worked out from the probes after each of its moves
+     */
+    private static TablebaseResult backedUp(Tablebase tablebase, ChessGame game) {
+        MoveList moves = new MoveList();
+        game.generateMoves(moves);
+        if (moves.isEmpty()) {
+            return game.isInCheck(game.getTeamTurn())
+                    ? new TablebaseResult(TablebaseResult.Outcome.LOSS, 0) : TablebaseResult.DRAW;
+        }
+        int fastestLoss = Integer.MAX_VALUE;
+        int slowestWin = -1;
+        boolean draw = false;
+        for (int i = 0; i < moves.size(); i++) {
+            game.makeMove(moves.get(i));
+            TablebaseResult result = tablebase.probe(game);
+            game.unmakeMove();
+            switch (result.outcome()) {
+                case LOSS -> fastestLoss = Math.min(fastestLoss, result.distance());
+                case DRAW -> draw = true;
+                case WIN -> slowestWin = Math.max(slowestWin, result.distance());
+            }
+        }
+        if (fastestLoss != Integer.MAX_VALUE) {
+            return new TablebaseResult(TablebaseResult.Outcome.WIN, fastestLoss + 1);
+        }
+        return draw ? TablebaseResult.DRAW : new TablebaseResult(TablebaseResult.Outcome.LOSS, slowestWin + 1);
+    }
+
+    private static ChessGame randomGame(Material material, Random random) {
+        while (true) {
+            ChessBoard board = new ChessBoard();
+            for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+                for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                    for (int i = 0; i < material.count(color, type); i++) {
+                        int square;
+                        do {
+                            square = random.nextInt(64);
+                        } while (board.getPiece(ChessPosition.fromSquare(square)) != null
+                                || (type == ChessPiece.PieceType.PAWN && (square < 8 || square >= 56)));
+                        board.addPiece(ChessPosition.fromSquare(square), ChessPiece.of(color, type));
+                    }
+                }
+            }
+            ChessGame game = new ChessGame();
+            game.setBoard(board);
+            game.setCastlingRights(0);
+            game.setTeamTurn(random.nextBoolean() ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK);
+            if (!game.isInCheck(opponent(game.getTeamTurn()))) {
+                return random.nextBoolean() ? game : mirror(game);
+            }
+        }
+    }
+
+    /**
+     * @return the game with colours swapped, so probes of the mirrored material are covered
+     */
+    private static ChessGame mirror(ChessGame game) {
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = game.getBoard().getPiece(ChessPosition.fromSquare(square));
+            if (piece != null) {
+                board.addPiece(ChessPosition.fromSquare(square ^ 56),
+                        ChessPiece.of(opponent(piece.getTeamColor()), piece.getPieceType()));
+            }
+        }
+        ChessGame mirrored = new ChessGame();
+        mirrored.setBoard(board);
+        mirrored.setCastlingRights(0);
+        mirrored.setTeamTurn(opponent(game.getTeamTurn()));
+        return mirrored;
+    }
+
+    private static ChessGame.TeamColor opponent(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+}
@@ -0,0 +1,409 @@
+package chess.uci;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+import chess.MoveList;
+import chess.engine.ParallelSearch;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import chess.notation.Uci;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Speaks the Universal Chess Interface over a pair of text streams, so tournament
+ * managers and GUIs can drive the engine and the server can run it as a subprocess.
+ * <p>
+ * Supported commands: {@code uci}, {@code isready}, {@code setoption} (Hash and
+ * Threads), {@code ucinewgame}, {@code position}, {@code go} (depth, nodes, movetime,
+ * the clock and increments, movestogo and infinite), {@code stop} and {@code quit}.
+ * Unknown commands are ignored as the protocol requires. Searches run on a background
+ * thread so {@code stop} and {@code isready} are answered while the engine thinks; any
+ * other command waits for a running search to finish first, or stops it if it is
+ * infinite.
+ */
+public final class UciEngine {
+
+    public static final String NAME = "240 Chess";
+    public static final String AUTHOR = "BYU CS 240";
+
+    private static final int DEFAULT_HASH = 16;
+    private static final int MAX_HASH = 32_768;
+    private static final int MAX_THREADS = 256;
+
+    /**
+     * Moves left assumed when the GUI does not say how many remain until the next time control
+     */
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+
+    /**
+     * Time kept in reserve on the clock for communication delays, in milliseconds
+     */
+    private static final long MOVE_OVERHEAD = 30;
+
+    private final BufferedReader in;
+    private final PrintWriter out;
+    private final ExecutorService searchThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "uci-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ChessGame game = new ChessGame();
+    private int hashMegabytes = DEFAULT_HASH;
+    private int threads = 1;
+    private ParallelSearch search;
+    private Future<?> running;
+    private volatile boolean stopRequested;
+    private volatile CountDownLatch infiniteWait;
+
+    public UciEngine(BufferedReader in, PrintWriter out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    /**
+     * Reads and answers commands until {@code quit} or the end of input
+     */
+    public void run() throws IOException {
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!handle(line)) {
+                    break;
+                }
+            }
+        } finally {
+            stopSearch();
+            searchThread.shutdownNow();
+            if (search != null) {
+                search.close();
+            }
+        }
+    }
+
+    /**
+     * Handles one command line
+     *
+     * @return false if the engine should exit
+     */
+    boolean handle(String line) {
+        String[] tokens = line.trim().split("\\s+");
+        switch (tokens[0]) {
+            case "uci" -> {
+                send("id name " + NAME);
+                send("id author " + AUTHOR);
+                send("option name Hash type spin default " + DEFAULT_HASH + " min 1 max " + MAX_HASH);
+                send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                send("uciok");
+            }
+            case "isready" -> send("readyok");
+            case "setoption" -> {
+                finishSearch();
+                setOption(tokens);
+            }
+            case "ucinewgame" -> {
+                finishSearch();
+                searcher().getTable().clear();
+                game = new ChessGame();
+            }
+            case "position" -> {
+                finishSearch();
+                position(tokens);
+            }
+            case "go" -> {
+                finishSearch();
+                go(tokens);
+            }
+            case "stop" -> stopSearch();
+            case "quit" -> {
+                return false;
+            }
+            default -> {
+                // Unknown commands and blank lines are ignored
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the game as set up by the last {@code position} command
+     */
+    ChessGame getGame() {
+        return game;
+    }
+
+    /**
+     * Waits for the running search, if any, to finish
+     */
+    void awaitSearch() {
+        if (running == null) {
+            return;
+        }
+        try {
+            running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search failed", e.getCause());
+        }
+        running = null;
+    }
+
+    private void setOption(String[] tokens) {
+        String name = joinBetween(tokens, "name", "value");
+        String value = joinBetween(tokens, "value", null);
+        try {
+            switch (name.toLowerCase()) {
+                case "hash" -> hashMegabytes = clamp(Integer.parseInt(value), 1, MAX_HASH);
+                case "threads" -> threads = clamp(Integer.parseInt(value), 1, MAX_THREADS);
+                default -> {
+                    return;
+                }
+            }
+        } catch (NumberFormatException e) {
+            send("info string Invalid value for " + name + ": " + value);
+            return;
+        }
+        if (search != null) {
+            search.close();
+            search = null;
+        }
+    }
+
+    /**
+     * {@code position [startpos | fen <fen>] [moves <move>...]}
+     */
+    private void position(String[] tokens) {
+        int index = 1;
+        ChessGame next;
+        try {
+            if (index < tokens.length && tokens[index].equals("startpos")) {
+                next = new ChessGame();
+                index++;
+            } else if (index < tokens.length && tokens[index].equals("fen")) {
+                StringBuilder fen = new StringBuilder();
+                for (index++; index < tokens.length && !tokens[index].equals("moves"); index++) {
+                    fen.append(tokens[index]).append(' ');
+                }
+                next = ChessGame.fromFen(fen.toString().trim());
+            } else {
+                send("info string Expected startpos or fen");
+                return;
+            }
+        } catch (IllegalArgumentException e) {
+            send("info string Invalid position: " + e.getMessage());
+            return;
+        }
+        if (index < tokens.length && tokens[index].equals("moves")) {
+            MoveList legal = new MoveList();
+            for (index++; index < tokens.length; index++) {
+                next.generateMoves(legal);
+                int move = Uci.decode(legal, tokens[index]);
+                if (move == Move.NONE) {
+                    send("info string Illegal move " + tokens[index]);
+                    break;
+                }
+                next.makeMove(move);
+            }
+        }
+        game = next;
+    }
+
+    private void go(String[] tokens) {
+        SearchLimits limits;
+        try {
+            limits = limits(tokens, game.getTeamTurn());
+        } catch (IllegalArgumentException e) {
+            send("info string Invalid go command: " + e.getMessage());
+            return;
+        }
+        boolean infinite = contains(tokens, "infinite");
+        ParallelSearch searcher = searcher();
+        ChessGame position = game;
+        stopRequested = false;
+        infiniteWait = infinite ? new CountDownLatch(1) : null;
+        running = searchThread.submit(() -> {
+            SearchResult result = searcher.search(position, limits, iteration -> {
+                send(info(iteration));
+                if (stopRequested) {
+                    // A stop that arrived before the search started is picked up here
+                    searcher.stop();
+                }
+            });
+            CountDownLatch wait = infiniteWait;
+            if (wait != null) {
+                // In infinite mode the best move may only be sent after stop
+                try {
+                    wait.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            send("bestmove " + bestMove(position, result));
+        });
+    }
+
+    /**
+     * GUIs forfeit an engine that answers {@code 0000} while it has a legal move, so that
+     * is only sent when the side to move has none
+     *
+     * @return the move to answer {@code go} with: the search's choice if it made one,
+     * otherwise the first legal move
+     */
+    static String bestMove(ChessGame position, SearchResult result) {
+        ChessMove best = result == null ? null : result.bestMove();
+        if (best != null) {
+            return Uci.encode(best);
+        }
+        MoveList legal = new MoveList();
+        position.generateMoves(legal);
+        return legal.size() == 0 ? "0000" : Uci.encode(Move.toChessMove(legal.get(0)));
+    }
+
+    /**
+     * Converts the arguments of {@code go} into search limits for the side to move
+     */
+    static SearchLimits limits(String[] tokens, ChessGame.TeamColor side) {
+        int depth = 0;
+        long nodes = 0;
+        long moveTime = 0;
+        long clock = 0;
+        boolean timed = false;
+        long increment = 0;
+        int movesToGo = 0;
+        boolean white = side == ChessGame.TeamColor.WHITE;
+        for (int i = 1; i + 1 < tokens.length; i++) {
+            String value = tokens[i + 1];
+            switch (tokens[i]) {
+                case "depth" -> depth = Math.min(Integer.parseInt(value), SearchLimits.MAX_DEPTH);
+                case "nodes" -> nodes = Long.parseLong(value);
+                case "movetime" -> moveTime = Long.parseLong(value);
+                case "wtime" -> {
+                    clock = white ? Long.parseLong(value) : clock;
+                    timed = true;
+                }
+                case "btime" -> {
+                    clock = white ? clock : Long.parseLong(value);
+                    timed = true;
+                }
+                case "winc" -> increment = white ? Long.parseLong(value) : increment;
+                case "binc" -> increment = white ? increment : Long.parseLong(value);
+                case "movestogo" -> movesToGo = Integer.parseInt(value);
+                default -> {
+                    continue;
+                }
+            }
+            i++;
+        }
+        long time = moveTime;
+        // A clock that is empty, overdrawn or missing from a timed game still bounds the search
+        if (time == 0 && timed) {
+            long available = Math.max(1, clock - MOVE_OVERHEAD);
+            time = available / (movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO) + increment * 3 / 4;
+            time = Math.max(1, Math.min(time, available / 2));
+        }
+        return new SearchLimits(Math.max(0, depth), Math.max(0, nodes), Math.max(0, time));
+    }
+
+    /**
+     * @return the {@code info} line reporting a completed iteration
+     */
+    static String info(SearchResult result) {
+        StringBuilder line = new StringBuilder("info depth ").append(result.depth()).append(" score ");
+        if (Search.isMateScore(result.score())) {
+            int plies = Search.mateDistance(result.score());
+            line.append("mate ").append((plies + (plies > 0 ? 1 : -1)) / 2);
+        } else {
+            line.append("cp ").append(result.score());
+        }
+        line.append(" nodes ").append(result.nodes())
+                .append(" nps ").append(result.nodesPerSecond())
+                .append(" time ").append(result.timeMillis());
+        if (!result.principalVariation().isEmpty()) {
+            line.append(" pv");
+            for (ChessMove move : result.principalVariation()) {
+                line.append(' ').append(Uci.encode(move));
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * Lets a running search complete, stopping it only when it would otherwise never end
+     */
+    private void finishSearch() {
+        if (infiniteWait != null) {
+            stopSearch();
+        } else {
+            awaitSearch();
+        }
+    }
+
+    private void stopSearch() {
+        stopRequested = true;
+        if (search != null) {
+            search.stop();
+        }
+        CountDownLatch wait = infiniteWait;
+        if (wait != null) {
+            wait.countDown();
+        }
+        awaitSearch();
+    }
+
+    private ParallelSearch searcher() {
+        if (search == null) {
+            search = new ParallelSearch(threads, new TranspositionTable(hashMegabytes));
+        }
+        return search;
+    }
+
+    private void send(String line) {
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    /**
+     * @return the tokens after {@code from} up to {@code to} (or the end), joined by spaces
+     */
+    private static String joinBetween(String[] tokens, String from, String to) {
+        StringBuilder joined = new StringBuilder();
+        boolean inside = false;
+        for (String token : tokens) {
+            if (inside && token.equals(to)) {
+                break;
+            }
+            if (inside) {
+                joined.append(joined.isEmpty() ? "" : " ").append(token);
+            }
+            inside |= token.equals(from);
+        }
+        return joined.toString();
+    }
+
+    private static boolean contains(String[] tokens, String token) {
+        for (String candidate : tokens) {
+            if (candidate.equals(token)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
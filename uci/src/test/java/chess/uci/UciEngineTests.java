@@ -0,0 +1,108 @@
+package chess.uci;
+
+import chess.ChessGame;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+public class UciEngineTests {
+
+    @Test
+    @DisplayName("Handshake Lists Options")
+    public void handshake() throws IOException {
+        List<String> lines = run("uci", "isready", "quit");
+        Assertions.assertEquals("id name " + UciEngine.NAME, lines.get(0));
+        Assertions.assertTrue(lines.contains("option name Hash type spin default 16 min 1 max 32768"));
+        Assertions.assertEquals("uciok", lines.get(lines.size() - 2));
+        Assertions.assertEquals("readyok", lines.get(lines.size() - 1));
+    }
+
+    @Test
+    @DisplayName("Position Applies Moves")
+    public void position() {
+        UciEngine engine = new UciEngine(new BufferedReader(new StringReader("")), new PrintWriter(new StringWriter()));
+        engine.handle("position startpos moves e2e4 c7c5 g1f3");
+        Assertions.assertEquals("rnbqkbnr/pp1ppppp/8/2p5/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2",
+                engine.getGame().toFen());
+        engine.handle("position fen 8/8/8/8/8/8/4k3/4K3 b - - 3 40 moves e2d3");
+        Assertions.assertEquals("8/8/8/8/8/3k4/8/4K3 w - - 4 41", engine.getGame().toFen());
+    }
+
+    @Test
+    @DisplayName("Go Finds Mate And Reports Best Move")
+    public void goDepth() throws IOException {
+        List<String> lines = run("position fen 6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1", "go depth 3", "isready");
+        Assertions.assertTrue(lines.contains("bestmove a1a8"), lines.toString());
+        Assertions.assertTrue(lines.stream().anyMatch(line -> line.startsWith("info depth 1 score mate 1 ")));
+    }
+
+    @Test
+    @DisplayName("Null Move Only Without Legal Moves")
+    public void bestMoveFallback() throws IOException {
+        SearchResult empty = new SearchResult(null, 0, 0, 1, 1, List.of());
+        Assertions.assertEquals("0000", UciEngine.bestMove(ChessGame.fromFen("k7/2Q5/1K6/8/8/8/8/8 b - - 0 1"), empty));
+        Assertions.assertNotEquals("0000", UciEngine.bestMove(new ChessGame(), empty));
+
+        List<String> lines = run("position startpos", "go nodes 1", "isready");
+        Assertions.assertTrue(lines.stream().anyMatch(line -> line.startsWith("bestmove ")
+                && !line.equals("bestmove 0000")), lines.toString());
+        Assertions.assertTrue(lines.stream().noneMatch(line -> line.startsWith("info depth 1 ")), lines.toString());
+    }
+
+    @Test
+    @DisplayName("Infinite Search Waits For Stop")
+    public void infinite() throws IOException {
+        List<String> lines = run("position startpos", "go infinite", "stop");
+        Assertions.assertTrue(lines.get(lines.size() - 1).startsWith("bestmove "), lines.toString());
+    }
+
+    @Test
+    @DisplayName("Clock Is Shared Over The Remaining Moves")
+    public void timeManagement() {
+        SearchLimits limits = UciEngine.limits("go wtime 60030 btime 1000 winc 1000 binc 0".split(" "),
+                ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(60_000 / 30 + 750, limits.timeMillis());
+        SearchLimits black = UciEngine.limits("go wtime 60000 btime 1030 movestogo 1".split(" "),
+                ChessGame.TeamColor.BLACK);
+        Assertions.assertEquals(500, black.timeMillis());
+        SearchLimits fixed = UciEngine.limits("go movetime 250 depth 9 nodes 1000".split(" "),
+                ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(new SearchLimits(9, 1000, 250), fixed);
+    }
+
+    @Test
+    @DisplayName("An Empty Clock Still Limits The Search")
+    public void emptyClock() {
+        for (String go : List.of("go wtime 0 btime 5000", "go wtime -120 btime 5000 winc 0", "go btime 5000")) {
+            SearchLimits limits = UciEngine.limits(go.split(" "), ChessGame.TeamColor.WHITE);
+            Assertions.assertEquals(new SearchLimits(0, 0, 1), limits, go);
+        }
+        Assertions.assertEquals(0, UciEngine.limits("go depth 3".split(" "), ChessGame.TeamColor.WHITE).timeMillis());
+    }
+
+    @Test
+    @DisplayName("Mate Scores Are Reported In Moves")
+    public void info() {
+        SearchResult mating = new SearchResult(null, 32_000 - 3, 4, 100, 10, List.of());
+        Assertions.assertEquals("info depth 4 score mate 2 nodes 100 nps 10000 time 10", UciEngine.info(mating));
+        SearchResult mated = new SearchResult(null, -(32_000 - 2), 4, 100, 10, List.of());
+        Assertions.assertTrue(UciEngine.info(mated).contains("score mate -1 "));
+    }
+
+    private static List<String> run(String... commands) throws IOException {
+        StringWriter output = new StringWriter();
+        UciEngine engine = new UciEngine(new BufferedReader(new StringReader(String.join("\n", commands))),
+                new PrintWriter(output));
+        engine.run();
+        return output.toString().lines().toList();
+    }
+}